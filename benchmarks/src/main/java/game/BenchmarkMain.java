@@ -0,0 +1,46 @@
+/**
+ * Runs the Happy Chicken benchmarks and writes the results as JSON, so that runs can be compared.
+ * <p>
+ * The first argument is the JSON result file (default jmh-result.json). Any further arguments are passed to JMH,
+ * for example {@code -f 1 -wi 2 -i 5} or a benchmark name pattern.
+ * <p>
+ * Benchmarks must be run from the project directory, as the game loads its images from data/.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String resultFile = args.length > 0 ? args[0] : "jmh-result.json";
+        String[] jmhArgs = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : new String[0];
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(new CommandLineOptions(jmhArgs));
+        //run every benchmark in the game package unless a pattern was given on the command line
+        if (jmhArgs.length == 0) {
+            builder.include("game\\..*Benchmark.*");
+        }
+        Options options = builder
+                .jvmArgsAppend("-Djava.awt.headless=true", "-Dgame.noAudio=true")
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Measures the cost of dispatching a single collision in ChickenCollisions and FireCollisions.
+ * <p>
+ * Each benchmark hands the listener a body of one type, as the engine would on contact.
+ * Pickups are taken out of play when handled, so each egg benchmark measures a whole cycle as one operation:
+ * an egg is taken from the level's pickup pool, handled, and parked again. No setup runs around each invocation,
+ * which would cost far more than the few nanoseconds being measured. {@link #eggPoolCycle()} measures the same cycle
+ * without the collision, so the cost of handling the egg is the difference between the two.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.DynamicBody;
+import org.jbox2d.common.Vec2;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    /**
+     * Number of eggs already in the level, to see whether dispatch cost depends on level size.
+     */
+    @Param({"0", "1000"})
+    public int extraEggs;
+
+    private GameLevel level;
+    private ChickenCollisions chickenCollisions;
+    private FireCollisions fireCollisions;
+    private Door door;
+    private Grass grass;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Game game = Game.createHeadless();
+        level = new Level2(game);
+        game.setHeadlessLevel(level);
+
+        for (int i = 0; i < extraEggs; i++) {
+            Egg extra = new Egg(level);
+            extra.setPosition(new Vec2(-1200 + (i % 100) * 5, -100 + (i / 100) * 5));
+            extra.setGravityScale(0);
+        }
+
+        chickenCollisions = new ChickenCollisions(level.getChicken(), game);
+        Fire fire = new Fire(level);
+        fireCollisions = new FireCollisions(fire, game);
+
+        //the door does nothing until all eggs are collected, so it measures the cost of the dispatch alone
+        door = new Door(level);
+        //grass has no collision handling at all
+        grass = new Grass(level);
+    }
+
+    /**
+     * Takes an egg from the pool and puts it in play, away from everything else in the level.
+     */
+    private DynamicBody obtainEgg() {
+        DynamicBody egg = level.getPickups().obtain(LevelLoader.EGG);
+        egg.setPosition(new Vec2(500, 500));
+        egg.setGravityScale(0);
+        return egg;
+    }
+
+    /**
+     * Takes an egg from the pool and parks it again, without any collision.
+     */
+    @Benchmark
+    public void eggPoolCycle() {
+        level.getPickups().release(obtainEgg());
+    }
+
+    @Benchmark
+    public void chickenCollectsEgg() {
+        chickenCollisions.collide(obtainEgg());
+        //carry out the deferred parking, as the world is not stepping
+        level.runDeferred();
+    }
+
+    @Benchmark
+    public void chickenTouchesDoor() {
+        chickenCollisions.collide(door);
+    }
+
+    @Benchmark
+    public void chickenTouchesGrass() {
+        chickenCollisions.collide(grass);
+    }
+
+    @Benchmark
+    public void fireBurnsEgg() {
+        fireCollisions.collide(obtainEgg());
+        level.runDeferred();
+    }
+
+    @Benchmark
+    public void fireTouchesGrass() {
+        fireCollisions.collide(grass);
+    }
+}
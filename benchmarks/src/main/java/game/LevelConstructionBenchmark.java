@@ -0,0 +1,37 @@
+/**
+ * Measures the cost of building each level from scratch, as happens on every level change and reset.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LevelConstructionBenchmark {
+
+    @Param({"1", "2", "3"})
+    public int levelNumber;
+
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = Game.createHeadless();
+    }
+
+    @Benchmark
+    public GameLevel constructLevel() {
+        return HeadlessRunner.createLevel(levelNumber, game);
+    }
+}
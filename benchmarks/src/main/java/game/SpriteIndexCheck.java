@@ -0,0 +1,189 @@
+/**
+ * Checks the radius and ray queries of a level's SpriteIndex against a brute-force scan of every body in the level.
+ * <p>
+ * Level 3 is built and stepped for a second, so that dynamic sprites have moved between cells, and then random
+ * queries for each type of sprite are made both through the index and by looking at every body. Any query where
+ * the two disagree is printed, and the check exits with a non-zero status. One ray in a hundred has no end,
+ * to check that the index cuts it short. The comparison itself is done by check(), which can be given any index
+ * and the sprites in it.
+ * <p>
+ * The first argument is the number of queries (default 5000) and the second the random seed (default 1).
+ * Like the benchmarks, the check must be run from the project directory once the module is packaged:
+ * {@code java -Djava.awt.headless=true -cp benchmarks/target/classes:lib/CityEngine.jar:lib/jbox2d-library.jar game.SpriteIndexCheck}.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+import org.jbox2d.common.Vec2;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class SpriteIndexCheck {
+    /**
+     * Types of sprite the queries look for.
+     */
+    private static final Class<?>[] TYPES = {
+            Sprite.class, Egg.class, QueenEgg.class, Fire.class, MovingFire.class, Grass.class
+    };
+
+    /**
+     * Largest difference allowed between the hit distances found by a ray through the index and by brute force.
+     */
+    private static final float TOLERANCE = 1e-4f;
+
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        Game game = Game.createHeadless();
+        GameLevel level = HeadlessRunner.createLevel(3, game);
+        game.setHeadlessLevel(level);
+        for (int i = 0; i < SimulationLoop.STEPS_PER_SECOND; i++) {
+            level.oneStep();
+        }
+
+        //only culled sprites are kept in cells, so only those can be found by the queries
+        List<Body> sprites = new ArrayList<>();
+        for (Body body : level.getDynamicBodies()) {
+            if (body instanceof Sprite && ((Sprite) body).isCulled()) {
+                sprites.add(body);
+            }
+        }
+        for (Body body : level.getStaticBodies()) {
+            if (body instanceof Sprite && ((Sprite) body).isCulled()) {
+                sprites.add(body);
+            }
+        }
+        if (sprites.isEmpty()) {
+            System.out.println("No sprites to check");
+            System.exit(1);
+        }
+
+        int failures = check(level.getSprites(), sprites, queries, seed);
+        System.out.printf("Checked %d radius and %d ray queries over %d sprites: %d failures%n",
+                queries, queries, sprites.size(), failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Makes random radius and ray queries through an index and by a scan of the given sprites, printing any that disagree.
+     *
+     * @param index the index holding the sprites
+     * @param sprites every culled sprite in the index
+     * @param queries the number of queries of each kind
+     * @param seed the random seed
+     * @return the number of queries that disagreed
+     */
+    static int check(SpriteIndex index, List<Body> sprites, int queries, long seed) {
+        //make queries around the area the sprites are in, and a little beyond it
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (Body sprite : sprites) {
+            Vec2 position = sprite.getPosition();
+            minX = Math.min(minX, position.x);
+            minY = Math.min(minY, position.y);
+            maxX = Math.max(maxX, position.x);
+            maxY = Math.max(maxY, position.y);
+        }
+        float margin = 2 * SpriteIndex.CELL_SIZE;
+        minX -= margin;
+        minY -= margin;
+        maxX += margin;
+        maxY += margin;
+
+        Random random = new Random(seed);
+        List<Object> found = new ArrayList<>();
+        int failures = 0;
+        for (int i = 0; i < queries; i++) {
+            Class<?> type = TYPES[random.nextInt(TYPES.length)];
+            Vec2 point = new Vec2(minX + random.nextFloat() * (maxX - minX), minY + random.nextFloat() * (maxY - minY));
+
+            float radius = random.nextFloat() * 5 * SpriteIndex.CELL_SIZE;
+            found.clear();
+            index.queryRadius(point, radius, cast(type), found);
+            HashSet<Object> expected = new HashSet<>();
+            for (Body sprite : sprites) {
+                if (type.isInstance(sprite) && ((Sprite) sprite).isShown() && distanceSquared(sprite.getPosition(), point) <= radius * radius) {
+                    expected.add(sprite);
+                }
+            }
+            if (found.size() != expected.size() || !expected.containsAll(found)) {
+                System.out.println("queryRadius " + type.getSimpleName() + " " + point + " " + radius
+                        + ": found " + found.size() + ", expected " + expected.size());
+                failures++;
+            }
+
+            double angle = random.nextDouble() * 2 * Math.PI;
+            Vec2 direction = new Vec2((float) Math.cos(angle), (float) Math.sin(angle));
+            //now and then a ray with no end, which the index cuts short at MAX_RAY_DISTANCE
+            float maxDistance = i % 100 == 0 ? Float.POSITIVE_INFINITY : random.nextFloat() * 20 * SpriteIndex.CELL_SIZE;
+            Object hit = index.raycast(point, direction, maxDistance, type);
+            maxDistance = Math.min(maxDistance, SpriteIndex.MAX_RAY_DISTANCE);
+            float expectedDistance = Float.POSITIVE_INFINITY;
+            for (Body sprite : sprites) {
+                if (type.isInstance(sprite) && ((Sprite) sprite).isShown()) {
+                    float distance = hitDistance(sprite, point, direction);
+                    if (distance >= 0 && distance <= maxDistance) {
+                        expectedDistance = Math.min(expectedDistance, distance);
+                    }
+                }
+            }
+            //sprites the same distance along the ray are equally good hits, so only the distance is compared
+            float hitDistance = hit != null ? hitDistance((Body) hit, point, direction) : Float.POSITIVE_INFINITY;
+            boolean same = hit == null ? expectedDistance == Float.POSITIVE_INFINITY : Math.abs(hitDistance - expectedDistance) <= TOLERANCE;
+            if (!same) {
+                System.out.println("raycast " + type.getSimpleName() + " " + point + " " + direction + " " + maxDistance
+                        + ": hit at " + hitDistance + ", expected " + expectedDistance);
+                failures++;
+            }
+        }
+
+        return failures;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> cast(Class<?> type) {
+        return (Class<Object>) type;
+    }
+
+    private static float distanceSquared(Vec2 a, Vec2 b) {
+        float dx = a.x - b.x;
+        float dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Finds how far along a ray it first touches a sprite, treating the sprite as the same circle SpriteIndex does.
+     *
+     * @return the distance, or -1 if the ray misses the sprite
+     */
+    private static float hitDistance(Body sprite, Vec2 origin, Vec2 direction) {
+        float radius = Math.min(((Sprite) sprite).getSpriteHeight() / 2, SpriteIndex.CELL_SIZE);
+        Vec2 position = sprite.getPosition();
+        float toX = position.x - origin.x;
+        float toY = position.y - origin.y;
+        float along = toX * direction.x + toY * direction.y;
+        float missSquared = toX * toX + toY * toY - along * along;
+        if (missSquared > radius * radius) {
+            return -1;
+        }
+        float enter = along - (float) Math.sqrt(radius * radius - missSquared);
+        float leave = along + (float) Math.sqrt(radius * radius - missSquared);
+        if (leave < 0) {
+            return -1;
+        }
+        return Math.max(enter, 0);
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Measures the cost of stepping a level's world, with every MovingFire and LastMovingFire being moved by the level's HazardMotion.
+ * <p>
+ * Extra moving fires and eggs can be added on top of the level's own bodies to see how the step cost grows
+ * when levels reach thousands of bodies.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import org.jbox2d.common.Vec2;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldStepBenchmark {
+    /**
+     * Number of world steps taken by each benchmark invocation.
+     */
+    private static final int STEPS = 100;
+
+    @Param({"1", "3"})
+    public int levelNumber;
+
+    /**
+     * Number of extra moving fires added to the level.
+     */
+    @Param({"0", "100", "1000"})
+    public int extraMovingFires;
+
+    /**
+     * Number of extra floating eggs added to the level.
+     */
+    @Param({"0", "1000", "5000"})
+    public int extraEggs;
+
+    private GameLevel level;
+
+    /**
+     * Builds a fresh level for every iteration, so the chicken always starts from the top of the level.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        Game game = Game.createHeadless();
+        level = HeadlessRunner.createLevel(levelNumber, game);
+        game.setHeadlessLevel(level);
+
+        //spread the extra bodies over a grid well away from the chicken's path
+        for (int i = 0; i < extraMovingFires; i++) {
+            MovingFire movingFire = new MovingFire(level);
+            movingFire.setPosition(new Vec2(200 + (i % 50) * 15, -100 + (i / 50) * 15));
+            movingFire.setGravityScale(0);
+        }
+        for (int i = 0; i < extraEggs; i++) {
+            Egg egg = new Egg(level);
+            egg.setPosition(new Vec2(-1200 + (i % 100) * 5, -100 + (i / 100) * 5));
+            egg.setGravityScale(0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public GameLevel step() {
+        for (int i = 0; i < STEPS; i++) {
+            level.oneStep();
+        }
+        return level;
+    }
+}
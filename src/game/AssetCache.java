@@ -0,0 +1,319 @@
+/**
+ * A shared cache of the images used by the game, so that each image file is only decoded once.
+ * <p>
+ * Images are cached by file path, and copies scaled to a given size by file path and size.
+ * The cache can be preloaded with every image the game uses on a background thread at startup,
+ * so that level changes and resets do not stall while images are decoded.
+ * <p>
+ * Images are decoded without holding any lock, so the preloading thread never holds up the Swing thread or a level being built
+ * while it decodes an image they do not need. A thread asking for an image that another thread is already decoding waits for that
+ * image alone.
+ * <p>
+ * The cache keeps its images within a memory budget, from the decoded size of each image. When the budget is exceeded,
+ * the least recently used images are evicted. An evicted image is only weakly held, so an image that the game still holds,
+ * such as one kept in a static field, is handed out again without being decoded, and the rest are freed by the garbage collector.
+ * The budget can be set in megabytes with {@code -Dgame.assetBudgetMb=...}.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+public class AssetCache {
+    /**
+     * Background images used by the levels and the introduction screens.
+     */
+    private static final String[] BACKGROUNDS = {
+            "data/background1.jpg", "data/background2.jpg", "data/background3.jpg"
+    };
+
+    /**
+     * Images of the platforms and game objects that are drawn as sprites but not packed into the SpriteAtlas.
+     */
+    private static final String[] SPRITE_IMAGES = {
+            "data/grass.jpeg", "data/border1.jpg", "data/soil.jpg", "data/border2.jpg",
+            "data/chicken.GIF", "data/roastChicken.gif", "data/water.png", "data/fireworks.gif"
+    };
+
+    /**
+     * A cached image and its decoded size.
+     */
+    private static class Entry {
+        private final Image image;
+        private final long bytes;
+
+        private Entry(Image image, long bytes) {
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * An evicted image, which is dropped from the cache once the garbage collector frees it.
+     */
+    private static class Evicted extends WeakReference<Image> {
+        private final String key;
+
+        private Evicted(String key, Image image) {
+            super(image, freed);
+            this.key = key;
+        }
+    }
+
+    /**
+     * Cached images by key, in least recently used order.
+     */
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(32, 0.75f, true);
+
+    /**
+     * Images evicted from the cache that may still be held by the game.
+     */
+    private static final Map<String, Evicted> evicted = new HashMap<>();
+    private static final ReferenceQueue<Image> freed = new ReferenceQueue<>();
+
+    /**
+     * Images being decoded, each by the first thread to ask for it.
+     */
+    private static final Map<String, FutureTask<Image>> decoding = new HashMap<>();
+
+    private static long budgetBytes = Long.getLong("game.assetBudgetMb", 64) * 1024 * 1024;
+    private static long usedBytes = 0;
+    private static long hits = 0;
+    private static long misses = 0;
+    private static long evictions = 0;
+
+    private AssetCache() {
+    }
+
+    /**
+     * Returns the decoded image in the given file, decoding it only if it is not already cached.
+     *
+     * @param fileName the path of the image file
+     * @return the shared image
+     */
+    public static Image getImage(String fileName) {
+        //ImageIcon waits until the image is fully decoded
+        return get(fileName, () -> new ImageIcon(fileName).getImage());
+    }
+
+    /**
+     * Returns the image in the given file scaled to the given size, scaling it only if that size is not already cached.
+     * This is for images drawn stretched to fill a component, which would otherwise be scaled again on every paint.
+     *
+     * @param fileName the path of the image file
+     * @param width the width to scale to, in pixels
+     * @param height the height to scale to, in pixels
+     * @return the shared scaled image, or the image itself if the size is empty
+     */
+    public static Image getImage(String fileName, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return getImage(fileName);
+        }
+        return get(fileName + "@" + width + "x" + height, () -> {
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(getImage(fileName), 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            return scaled;
+        });
+    }
+
+    /**
+     * Finds a cached image, or decodes it on the calling thread if no other thread has started to.
+     * If another thread is decoding it, waits for that thread to finish.
+     */
+    private static Image get(String key, Callable<Image> decoder) {
+        FutureTask<Image> task;
+        boolean decode = false;
+        synchronized (AssetCache.class) {
+            Image image = find(key);
+            if (image != null) {
+                hits++;
+                return image;
+            }
+            task = decoding.get(key);
+            if (task == null) {
+                misses++;
+                task = new FutureTask<>(decoder);
+                decoding.put(key, task);
+                decode = true;
+            } else {
+                hits++;
+            }
+        }
+
+        if (decode) {
+            task.run();
+            Image image = null;
+            try {
+                image = task.get();
+            } catch (InterruptedException | ExecutionException e) {
+                //reported to every waiting thread below
+            }
+            synchronized (AssetCache.class) {
+                decoding.remove(key);
+                if (image != null) {
+                    put(key, new Entry(image, bytesOf(image)));
+                }
+            }
+        }
+
+        //wait without giving up if interrupted, as the image is needed to carry on
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            //a later call tries again, as the failed decode is no longer in progress
+            throw new IllegalStateException("Error decoding " + key, e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Finds an image in the cache, or one that was evicted but is still held by the game, which is cached again.
+     * Must be called while holding the lock.
+     */
+    private static Image find(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry.image;
+        }
+
+        dropFreed();
+        Evicted ref = evicted.remove(key);
+        Image image = ref != null ? ref.get() : null;
+        if (image != null) {
+            put(key, new Entry(image, bytesOf(image)));
+        }
+        return image;
+    }
+
+    /**
+     * Works out the size of a decoded image, at four bytes a pixel.
+     */
+    private static long bytesOf(Image image) {
+        return (long) Math.max(image.getWidth(null), 0) * Math.max(image.getHeight(null), 0) * 4;
+    }
+
+    /**
+     * Adds an entry to the cache and evicts the least recently used entries until the cache is within its budget.
+     * The entry just added is never evicted. Must be called while holding the lock.
+     */
+    private static void put(String key, Entry entry) {
+        entries.put(key, entry);
+        usedBytes += entry.bytes;
+        evictOverBudget(key);
+    }
+
+    /**
+     * Evicts the least recently used entries, other than the given one, until the cache is within its budget.
+     * Must be called while holding the lock.
+     */
+    private static void evictOverBudget(String keep) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            usedBytes -= eldest.getValue().bytes;
+            evicted.put(eldest.getKey(), new Evicted(eldest.getKey(), eldest.getValue().image));
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Forgets evicted images that the garbage collector has freed. Must be called while holding the lock.
+     */
+    private static void dropFreed() {
+        Evicted ref;
+        while ((ref = (Evicted) freed.poll()) != null) {
+            evicted.remove(ref.key, ref);
+        }
+    }
+
+    /**
+     * Decodes every image the game uses on a background thread, so that they are ready before they are first needed.
+     *
+     * @return the thread doing the preloading
+     */
+    public static Thread preloadAsync() {
+        Thread thread = new Thread(AssetCache::preloadAll, "asset-preloader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Decodes every image the game uses on the calling thread.
+     */
+    public static void preloadAll() {
+        for (String background : BACKGROUNDS) {
+            getImage(background);
+        }
+        SpriteAtlas.load();
+        for (String image : SPRITE_IMAGES) {
+            getImage(image);
+        }
+    }
+
+    /**
+     * Sets the memory budget of the cache, evicting images if the cache is now over budget.
+     *
+     * @param megabytes the budget in megabytes
+     */
+    public static synchronized void setBudgetMb(long megabytes) {
+        budgetBytes = megabytes * 1024 * 1024;
+        evictOverBudget(null);
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public static synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Plays the game's sound effects and music.
+ * <p>
+ * Sounds hands every sound to one backend, so that where sound goes can be chosen per run: the AudioMixer plays it
+ * on the sound device, NullAudio drops it, and RecordingAudio notes which sound was asked for and when.
+ * Headless runs and benchmarks use one of the last two, so they never touch a sound device or decode a sound file.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+
+public interface AudioBackend {
+    /**
+     * Loads a sound effect from the given file.
+     *
+     * @param fileName the path of the sound file
+     * @return the sound effect
+     * @throws IOException if the file cannot be read
+     * @throws UnsupportedAudioFileException if the file is not a supported sound format
+     */
+    SoundEffect load(String fileName) throws IOException, UnsupportedAudioFileException;
+
+    /**
+     * Gets music from the given file.
+     *
+     * @param fileName the path of the music file, which is known to exist
+     * @return the music
+     */
+    MusicTrack music(String fileName);
+
+    /**
+     * Starts playing a sound effect.
+     *
+     * @param effect the sound effect
+     * @param loop whether to play it over and over until it is stopped
+     */
+    void play(SoundEffect effect, boolean loop);
+
+    /**
+     * Stops every playing copy of a sound effect.
+     *
+     * @param effect the sound effect
+     */
+    void stop(SoundEffect effect);
+
+    /**
+     * Sets the music to play, replacing any music already playing.
+     *
+     * @param track the music, or null for none
+     */
+    void setMusic(MusicTrack track);
+
+    /**
+     * Stops the given music, if it is the music playing.
+     *
+     * @param track the music
+     */
+    void stopMusic(MusicTrack track);
+
+    /**
+     * Releases anything the backend holds, such as the audio line.
+     */
+    void close();
+}
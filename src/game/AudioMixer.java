@@ -0,0 +1,306 @@
+/**
+ * A small software mixer that plays every sound effect and the music through one audio line.
+ * <p>
+ * The line is opened once, when the first sound is loaded, and a mixer thread keeps it fed with small buffers.
+ * Each buffer is mixed from up to MAX_VOICES sound effects playing at once plus the music, so playing a sound
+ * never opens a line, and a sound played again before it has finished starts a new voice rather than cutting the first one off.
+ * When every voice is busy, the one that has played longest is reused.
+ * <p>
+ * Sound effects are decoded into memory once by SoundEffect; music is streamed from disk by MusicTrack.
+ * There are two music slots, so that when the music changes the new music fades in over CROSSFADE_FRAMES while the old fades out.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.sound.sampled.*;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class AudioMixer implements AudioBackend, Runnable {
+    /**
+     * Sample rate of the line, in frames per second.
+     */
+    public static final float SAMPLE_RATE = 44100f;
+
+    /**
+     * Format of the line: 16-bit signed little-endian stereo.
+     */
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+
+    /**
+     * Number of frames mixed at a time (about 12 milliseconds).
+     */
+    public static final int BUFFER_FRAMES = 512;
+
+    /**
+     * Most sound effects that can play at once.
+     */
+    public static final int MAX_VOICES = 16;
+
+    /**
+     * Number of frames music takes to fade in or out (three quarters of a second).
+     */
+    public static final int CROSSFADE_FRAMES = (int) (SAMPLE_RATE * 0.75f);
+
+    /**
+     * A sound effect that is playing.
+     */
+    private static class Voice {
+        private SoundEffect effect;
+        private int frame;
+        private boolean looping;
+        private long started;
+    }
+
+    private final SourceDataLine line;
+    private final Voice[] voices = new Voice[MAX_VOICES];
+
+    /**
+     * Held while the voices and music are changed, and while a buffer is mixed from them.
+     */
+    private final Object lock = new Object();
+
+    private MusicTrack music;
+    private MusicTrack fadingOut;
+
+    /**
+     * Frames played since the music last changed, which is CROSSFADE_FRAMES or more once the fade has finished.
+     */
+    private int fadePosition = CROSSFADE_FRAMES;
+
+    private volatile boolean running = true;
+    private long voicesStarted = 0;
+
+    private final int[] mix = new int[BUFFER_FRAMES * 2];
+    private final short[] musicSamples = new short[BUFFER_FRAMES * 2];
+    private final byte[] output = new byte[BUFFER_FRAMES * 4];
+
+    /**
+     * Opens the default audio line and starts the mixer thread.
+     *
+     * @throws LineUnavailableException if no audio line can be opened
+     */
+    public AudioMixer() throws LineUnavailableException {
+        line = AudioSystem.getSourceDataLine(FORMAT);
+        //hold four buffers, so a short stall does not make the sound skip
+        line.open(FORMAT, BUFFER_FRAMES * 4 * 4);
+        line.start();
+
+        for (int i = 0; i < voices.length; i++) {
+            voices[i] = new Voice();
+        }
+
+        Thread thread = new Thread(this, "audio-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Decodes a whole sound file into memory.
+     *
+     * @param fileName the path of the sound file
+     * @return the sound effect
+     * @throws IOException if the file cannot be read
+     * @throws UnsupportedAudioFileException if the file is not a supported sound format
+     */
+    @Override
+    public SoundEffect load(String fileName) throws IOException, UnsupportedAudioFileException {
+        return new SoundEffect(fileName, PcmReader.decode(fileName));
+    }
+
+    @Override
+    public MusicTrack music(String fileName) {
+        return new MusicTrack(fileName, true);
+    }
+
+    /**
+     * Starts playing a sound effect on a free voice, or on the voice that has played longest if none are free.
+     *
+     * @param effect the sound effect
+     * @param loop whether to play it over and over until it is stopped
+     */
+    @Override
+    public void play(SoundEffect effect, boolean loop) {
+        synchronized (lock) {
+            Voice chosen = null;
+            for (Voice voice : voices) {
+                if (voice.effect == null) {
+                    chosen = voice;
+                    break;
+                }
+                if (chosen == null || voice.started < chosen.started) {
+                    chosen = voice;
+                }
+            }
+            chosen.effect = effect;
+            chosen.frame = 0;
+            chosen.looping = loop;
+            chosen.started = voicesStarted++;
+        }
+    }
+
+    /**
+     * Stops every voice playing the given sound effect.
+     *
+     * @param effect the sound effect
+     */
+    @Override
+    public void stop(SoundEffect effect) {
+        synchronized (lock) {
+            for (Voice voice : voices) {
+                if (voice.effect == effect) {
+                    voice.effect = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the music to play, fading it in while any music already playing fades out.
+     *
+     * @param track the music, or null for none
+     */
+    @Override
+    public void setMusic(MusicTrack track) {
+        synchronized (lock) {
+            if (music == track) {
+                return;
+            }
+            //music that was still fading out from an earlier change is dropped
+            fadingOut = music;
+            music = track;
+            fadePosition = 0;
+        }
+    }
+
+    /**
+     * Fades out the given music, if it is the music playing.
+     *
+     * @param track the music
+     */
+    @Override
+    public void stopMusic(MusicTrack track) {
+        synchronized (lock) {
+            if (music == track) {
+                setMusic(null);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sound effects playing.
+     *
+     * @return the number of busy voices
+     */
+    public int getActiveVoices() {
+        synchronized (lock) {
+            int active = 0;
+            for (Voice voice : voices) {
+                if (voice.effect != null) {
+                    active++;
+                }
+            }
+            return active;
+        }
+    }
+
+    /**
+     * Stops the mixer thread and closes the line.
+     */
+    @Override
+    public void close() {
+        running = false;
+    }
+
+    /**
+     * Mixes and writes buffers until the mixer is closed. Writing blocks while the line is full, which paces the thread.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            MusicTrack incoming;
+            MusicTrack outgoing;
+            int fade;
+            synchronized (lock) {
+                mixVoices();
+                incoming = music;
+                outgoing = fadingOut;
+                fade = fadePosition;
+                if (fadePosition < CROSSFADE_FRAMES) {
+                    fadePosition += BUFFER_FRAMES;
+                } else {
+                    fadingOut = null;
+                }
+            }
+            mixMusic(incoming, fade, true);
+            mixMusic(outgoing, fade, false);
+
+            for (int i = 0; i < mix.length; i++) {
+                int sample = mix[i];
+                if (sample > Short.MAX_VALUE) {
+                    sample = Short.MAX_VALUE;
+                } else if (sample < Short.MIN_VALUE) {
+                    sample = Short.MIN_VALUE;
+                }
+                output[i * 2] = (byte) sample;
+                output[i * 2 + 1] = (byte) (sample >> 8);
+            }
+            line.write(output, 0, output.length);
+        }
+        line.drain();
+        line.close();
+    }
+
+    /**
+     * Adds the next buffer of a music track into the mix, scaled by how far through the crossfade it is.
+     *
+     * @param track the music, or null for none
+     * @param fade the frames played since the music changed, at the start of the buffer
+     * @param fadingIn true for the new music, false for the old
+     */
+    private void mixMusic(MusicTrack track, int fade, boolean fadingIn) {
+        if (track == null) {
+            return;
+        }
+        int frames = track.read(musicSamples, BUFFER_FRAMES);
+        for (int i = 0; i < frames; i++) {
+            float gain = Math.min(1f, (fade + i) / (float) CROSSFADE_FRAMES);
+            if (!fadingIn) {
+                gain = 1f - gain;
+            }
+            mix[i * 2] += (int) (musicSamples[i * 2] * gain);
+            mix[i * 2 + 1] += (int) (musicSamples[i * 2 + 1] * gain);
+        }
+    }
+
+    /**
+     * Adds the next buffer of every playing voice into the mix, which is cleared first.
+     */
+    private void mixVoices() {
+        Arrays.fill(mix, 0);
+        for (Voice voice : voices) {
+            if (voice.effect == null) {
+                continue;
+            }
+            short[] samples = voice.effect.getSamples();
+            int frames = samples.length / 2;
+            for (int i = 0; i < BUFFER_FRAMES; i++) {
+                if (voice.frame >= frames) {
+                    if (!voice.looping || frames == 0) {
+                        voice.effect = null;
+                        break;
+                    }
+                    voice.frame = 0;
+                }
+                mix[i * 2] += samples[voice.frame * 2];
+                mix[i * 2 + 1] += samples[voice.frame * 2 + 1];
+                voice.frame++;
+            }
+        }
+    }
+}
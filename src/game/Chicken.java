@@ -17,25 +17,24 @@ package game;
 import city.cs.engine.*;
 import org.jbox2d.common.Vec2;
 
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
-import java.io.IOException;
+import javax.swing.SwingUtilities;
 
 //the Walker class extends from a DynamicBody class
-public class Chicken extends Walker {
+public class Chicken extends Walker implements Sprite {
     private static final Shape chickenShape = new PolygonShape(-0.12f,2.6f, -2.77f,-0.01f, -2.17f,-1.51f, -1.54f,-2.42f, 1.56f,-2.46f, 2.24f,-1.44f, 2.8f,-0.17f);
 
     private int credits;
 
-    private static final BodyImage image = new BodyImage("data/chicken.GIF", 6f);
+    static final SpriteAtlas.Region image = SpriteAtlas.image("data/chicken.GIF");
 
     //roast chicken image
-    private static final BodyImage roastedImage = new BodyImage("data/roastChicken.gif", 6f);
+    private static final SpriteAtlas.Region roastedImage = SpriteAtlas.image("data/roastChicken.gif");
+    static final float IMAGE_HEIGHT = 6f;
 
     private boolean roasted;
     private Game game;
-    private static SoundClip roastedSound;
-    private static SoundClip awhSound;
+    private static SoundEffect roastedSound;
+    private static SoundEffect awhSound;
 
     /**
      * Creates a new chicken character within the specified game world.
@@ -46,7 +45,7 @@ public class Chicken extends Walker {
     public Chicken(World world, Game game) {
         super(world, chickenShape);
         this.game = game;
-        addImage(image);
+        SpriteIndex.register(world, this);
         credits = 0;
         roasted = false;
     }
@@ -64,18 +63,12 @@ public class Chicken extends Walker {
     }
 
     /**
-     * Static block to preload sound clips for roasted and "awh" effects.
+     * Static block to preload sound effects for roasted and "awh" effects.
      * This block is executed once when the class is first loaded.
      */
     static {
-        try {
-            roastedSound = new SoundClip("data/roasted.wav");
-            System.out.println("Loading roasted sound");
-            awhSound = new SoundClip("data/awh.wav");
-            System.out.println("Loading awh sound");
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.out.println(e);
-        }
+        roastedSound = Sounds.load("data/roasted.wav");
+        awhSound = Sounds.load("data/awh.wav");
     }
 
     /**
@@ -83,12 +76,16 @@ public class Chicken extends Walker {
      * Plays a one-time "awh" sound followed by a looping roasted sound.
      */
     public void playRoastedSound() {
-        awhSound.play();
-        roastedSound.loop();
+        if (awhSound != null) {
+            awhSound.play();
+        }
+        if (roastedSound != null) {
+            roastedSound.loop();
+        }
         game.setRoastedSoundPlaying(true);
     }
 
-    public static SoundClip getRoastedSound() {
+    public static SoundEffect getRoastedSound() {
         return roastedSound;
     }
 
@@ -97,37 +94,58 @@ public class Chicken extends Walker {
      * The GUI reset button is also triggered to appear on the screen.
      */
     public void setRoasted() {
+        //the view draws the roasted chicken image from now on
         this.roasted = true;
 
-        //remove the current chicken image
-        this.removeAllImages();
-        //add roasted chicken image
-        this.addImage(roastedImage);
-
         //play roasted sound if game is not muted
         if (!game.isMuted()) {
-            game.getGameMusic().stop();
+            if (game.getGameMusic() != null) {
+                game.getGameMusic().stop();
+            }
             playRoastedSound();
         }
         game.setRoastedSoundPlaying(true);
 
-        //stop the current level and show reset button
+        //stop the current level and show reset button (there is no GUI when running headlessly)
         if (game != null) {
             game.getLevel().stop();
-            game.getGUI().showGameOverButton();
+            if (game.getGUI() != null) {
+                //the chicken is roasted on the simulation thread while it holds the step lock, so never touch Swing from here
+                SwingUtilities.invokeLater(() -> game.getGUI().showGameOverButton());
+            }
         }
     }
 
+    /**
+     * Sets whether the chicken is roasted, without playing any sound or stopping the level, for restoring a level snapshot.
+     *
+     * @param roasted whether the chicken is roasted
+     */
+    void restoreRoasted(boolean roasted) {
+        this.roasted = roasted;
+    }
+
     /**
      * Resets the chicken's roasted state back to normal, replacing the roasted image with the default walking image.
      */
     public void resetRoasted() {
-        //reset roasted boolean
+        //reset roasted boolean, so the view draws the default chicken image again
         this.roasted = false;
-        //remove roasted image
-        this.removeAllImages();
-        // reset to default chicken image
-        this.addImage(image);
+    }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return roasted ? roastedImage : image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
+    }
+
+    @Override
+    public boolean isCulled() {
+        return false;
     }
 
     /**
@@ -11,13 +11,34 @@
 
 package game;
 
+import city.cs.engine.Body;
 import city.cs.engine.CollisionEvent;
 import city.cs.engine.CollisionListener;
 import org.jbox2d.common.Vec2;
 
+import javax.swing.SwingUtilities;
+
 public class ChickenCollisions implements CollisionListener {
+    /**
+     * Handlers for each type of body the chicken can collide with, registered once for all chickens.
+     */
+    private static final CollisionTable<ChickenCollisions> collisions = new CollisionTable<>();
+
+    static {
+        collisions.register(Chicken.class, Egg.class, (listener, chicken, other) -> listener.collectEgg(other));
+        collisions.register(Chicken.class, QueenEgg.class, (listener, chicken, other) -> listener.collectQueenEgg(other));
+        collisions.register(Chicken.class, Fire.class, (listener, chicken, other) -> listener.roast());
+        collisions.register(Chicken.class, MovingFire.class, (listener, chicken, other) -> listener.roast());
+        collisions.register(Chicken.class, LastMovingFire.class, (listener, chicken, other) -> listener.roast());
+        collisions.register(Chicken.class, ChickenNest.class, (listener, chicken, other) -> listener.reachExit(false));
+        collisions.register(Chicken.class, Door.class, (listener, chicken, other) -> listener.reachExit(true));
+        collisions.register(Chicken.class, WaterBucket.class, (listener, chicken, other) -> listener.collectBucket(other));
+        collisions.register(Chicken.class, GoldEgg.class, (listener, chicken, other) -> listener.collectGoldEgg(other));
+    }
+
     private Chicken chicken;
     private Game game;
+    private GameLevel level;
 
     /**
      * Constructs a new collision listener for the given chicken and game context.
@@ -28,6 +49,7 @@ public class ChickenCollisions implements CollisionListener {
     public ChickenCollisions(Chicken chicken, Game game) {
         this.chicken=chicken;
         this.game=game;
+        this.level=(GameLevel) chicken.getWorld();
     }
 
     /**
@@ -43,61 +65,115 @@ public class ChickenCollisions implements CollisionListener {
      */
     @Override
     public void collide(CollisionEvent collisionEvent) {
-        if (collisionEvent.getOtherBody() instanceof Egg){
-            chicken.setCredits(chicken.getCredits()+1);
-            collisionEvent.getOtherBody().destroy();
-            Egg.playChirp(game);
-
-        } else if (collisionEvent.getOtherBody() instanceof QueenEgg) {
-            chicken.setCredits(chicken.getCredits()+2);
-            collisionEvent.getOtherBody().destroy();
-            QueenEgg.playYay(game);
-
-            //apply an upward impulse to make the chicken bounce
-            //get the current velocity of chicken
-            Vec2 currentVelocity = chicken.getLinearVelocity();
-            //set an upward velocity
-            Vec2 bounceVelocity = new Vec2(currentVelocity.x, 30);
-            //apply the velocity to the chicken
-            chicken.setLinearVelocity(bounceVelocity);
-
-        } else if (collisionEvent.getOtherBody() instanceof Fire || collisionEvent.getOtherBody() instanceof MovingFire || collisionEvent.getOtherBody() instanceof LastMovingFire) {
-            game.getLevel().isGameOver();
-            chicken.setRoasted();
+        collide(collisionEvent.getOtherBody());
+    }
+
+    /**
+     * Handles a collision between the chicken and the given body by looking up the handler for its type.
+     * This is separate from the CollisionEvent so that collision handling can be driven directly, for example by benchmarks.
+     *
+     * @param otherBody the body the chicken collided with
+     */
+    void collide(Body otherBody) {
+        collisions.dispatch(this, chicken, otherBody);
+
+        if (CollisionTable.LOGGING) {
+            System.out.println(otherBody.getClass().getSimpleName() + " hit, eggs collected: " + chicken.getCredits());
+        }
+    }
+
+    /**
+     * Collects an egg: increments the score and plays a chirp.
+     * The egg is returned to the pickup pool after the step; a second contact with it in the same step is ignored.
+     */
+    private void collectEgg(Body egg) {
+        if (!level.getPickups().collect(egg)) {
+            return;
+        }
+        chicken.setCredits(chicken.getCredits()+1);
+        Egg.playChirp(game);
+    }
+
+    /**
+     * Collects a queen egg: increases the score by two, plays a "yay" and makes the chicken bounce.
+     */
+    private void collectQueenEgg(Body queenEgg) {
+        if (!level.getPickups().collect(queenEgg)) {
+            return;
+        }
+        chicken.setCredits(chicken.getCredits()+2);
+        QueenEgg.playYay(game);
+
+        //apply an upward impulse to make the chicken bounce
+        //get the current velocity of chicken
+        Vec2 currentVelocity = chicken.getLinearVelocity();
+        //set an upward velocity
+        Vec2 bounceVelocity = new Vec2(currentVelocity.x, 30);
+        //apply the velocity to the chicken
+        chicken.setLinearVelocity(bounceVelocity);
+    }
+
+    /**
+     * Roasts the chicken and ends the game.
+     */
+    private void roast() {
+        chicken.setRoasted();
+        if (CollisionTable.LOGGING) {
             System.out.println("Oh no! You're cooked!");
             System.out.println("Game Over!");
-            chicken.getWorld().stop();
-
-        } else if (collisionEvent.getOtherBody() instanceof ChickenNest) {
-            QueenEgg.playYay(game);
-            game.goToNextLevel();
+        }
+        chicken.getWorld().stop();
+    }
 
-        } else if (collisionEvent.getOtherBody() instanceof Door && game.getLevel().isComplete()) {
-            QueenEgg.playYay(game);
-            game.goToNextLevel();
+    /**
+     * Advances to the next level when the chicken reaches the nest, or the door once the level is complete.
+     *
+     * @param needsComplete whether the level must be complete before the chicken can leave
+     */
+    private void reachExit(boolean needsComplete) {
+        if (needsComplete && !game.getLevel().isComplete()) {
+            return;
+        }
+        QueenEgg.playYay(game);
+        game.goToNextLevel();
+    }
 
-        } else if (collisionEvent.getOtherBody() instanceof WaterBucket) {
-            collisionEvent.getOtherBody().destroy();
-            QueenEgg.playYay(game);
-            WaterBucket.setCollectedBucket();
-            System.out.println("Water collected!");
+    /**
+     * Collects the water bucket, so that the chicken can shoot water.
+     */
+    private void collectBucket(Body bucket) {
+        if (!level.destroyAfterStep(bucket)) {
+            return;
+        }
+        QueenEgg.playYay(game);
+        level.getState().setBucketCollected(true);
+        System.out.println("Water collected!");
+    }
 
-        } else if (collisionEvent.getOtherBody() instanceof GoldEgg) {
-            collisionEvent.getOtherBody().destroy();
-            QueenEgg.playYay(game);
-            System.out.println("Gold egg collected! You won!");
+    /**
+     * Collects the golden egg: wins the game, clears the grass and sets off fireworks.
+     */
+    private void collectGoldEgg(Body goldEgg) {
+        if (!level.destroyAfterStep(goldEgg)) {
+            return;
+        }
+        QueenEgg.playYay(game);
+        System.out.println("Gold egg collected! You won!");
 
-            ((Level3) game.getLevel()).clearGrass();
-            GoldEgg.setGoldEggCollected();
+        level.getState().setGoldEggCollected(true);
 
-            //trigger celebratory fireworks
+        //clear the grass and trigger celebratory fireworks after the step, as bodies cannot be destroyed or created during it;
+        //the fireworks are kept with the placed bodies so that restoring an earlier snapshot removes them
+        level.defer(() -> {
+            ((Level3) level).clearGrass();
             for (int i=0; i<3; i++) {
-                Fireworks fireworks = new Fireworks(game.getLevel());
-                fireworks.setPosition(new Vec2((-20)+(i*20), -99f));
+                Body fireworks = LevelLoader.spawn(level, game, LevelLoader.FIREWORKS, (-20)+(i*20), -99f, 0);
+                level.addPlaced(fireworks, 0);
             }
-            game.getGUI().showGameOverButton();
+        });
+        if (game.getGUI() != null) {
+            //this runs on the simulation thread while it holds the step lock, so never touch Swing from here
+            SwingUtilities.invokeLater(() -> game.getGUI().showGameOverButton());
         }
-
-        System.out.println(chicken.getCredits());
     }
 }
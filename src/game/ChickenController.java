@@ -3,6 +3,9 @@
  * <p>
  * It listens for key events to make the chicken walk, jump (in Level2), or shoot water projectiles (after water bucket is collected in Level3).
  * <p>
+ * Keys are handled while holding the level's step lock, so they never land in the middle of a physics step,
+ * and are passed to an InputRecorder if one is set, so the game can be replayed exactly.
+ * <p>
  * @author      Joyce Ow joyce.ow@city.ac.uk
  * @version     2.0
  * @since       2025
@@ -14,10 +17,14 @@ import java.awt.event.KeyListener;
 import city.cs.engine.*;
 
 public class ChickenController implements KeyListener {
+    /**
+     * Maximum number of water projectiles the chicken can shoot.
+     */
+    public static final int MAX_SHOTS = 3;
 
     private Chicken chicken;
     private GameLevel level;
-    private int count = 0;
+    private InputRecorder recorder;
 
     /**
      * Constructs a new controller to handle keyboard input for a chicken in a specified level.
@@ -41,6 +48,10 @@ public class ChickenController implements KeyListener {
         this.level = level;
     }
 
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
     /**
      * Not used but required by KeyListener class interface.
      */
@@ -62,21 +73,26 @@ public class ChickenController implements KeyListener {
     @Override
     public void keyPressed(KeyEvent e) {
         int code = e.getKeyCode();
-        //control chicken to make chicken move sideways
-        if (code == KeyEvent.VK_LEFT) {
-            chicken.startWalking(-8);
-        } else if (code == KeyEvent.VK_RIGHT) {
-            chicken.startWalking(8);
+        synchronized (level.getStepLock()) {
+            if (recorder != null) {
+                recorder.record(code, true);
+            }
+
+            //control chicken to make chicken move sideways
+            if (code == KeyEvent.VK_LEFT) {
+                chicken.startWalking(-8);
+            } else if (code == KeyEvent.VK_RIGHT) {
+                chicken.startWalking(8);
 
-        //control chicken to make chicken jump
-        } else if ((code == KeyEvent.VK_SPACE) && (level instanceof Level2)) {
-            chicken.jump(12);
+            //control chicken to make chicken jump
+            } else if ((code == KeyEvent.VK_SPACE) && (level instanceof Level2)) {
+                chicken.jump(12);
 
-        //control chicken to make chicken shoot water projectiles
-        } else if ((code == KeyEvent.VK_SHIFT) && WaterBucket.getCollectedBucket() && count < 3) {
-            WaterProjectile waterProjectile = new WaterProjectile(level, chicken.getPosition(), chicken.getDirection());
-            waterProjectile.launch();
-            count++;
+            //control chicken to make chicken shoot water projectiles
+            } else if ((code == KeyEvent.VK_SHIFT) && level.getState().isBucketCollected() && level.getState().getShotsUsed() < MAX_SHOTS) {
+                level.getProjectiles().launch(chicken.getPosition(), chicken.getDirection());
+                level.getState().setShotsUsed(level.getState().getShotsUsed() + 1);
+            }
         }
     }
 
@@ -88,11 +104,17 @@ public class ChickenController implements KeyListener {
     @Override
     public void keyReleased(KeyEvent e) {
         int code = e.getKeyCode();
-        //stop chicken from moving when key is released
-        if (code == KeyEvent.VK_LEFT) {
-            chicken.stopWalking();
-        } else if (code == KeyEvent.VK_RIGHT) {
-            chicken.stopWalking();
+        synchronized (level.getStepLock()) {
+            if (recorder != null) {
+                recorder.record(code, false);
+            }
+
+            //stop chicken from moving when key is released
+            if (code == KeyEvent.VK_LEFT) {
+                chicken.stopWalking();
+            } else if (code == KeyEvent.VK_RIGHT) {
+                chicken.stopWalking();
+            }
         }
     }
 }
@@ -15,11 +15,12 @@ package game;
 
 import city.cs.engine.*;
 
-public class ChickenNest extends StaticBody{
+public class ChickenNest extends StaticBody implements Sprite {
 
     private static final Shape penShape = new BoxShape(5,2.5f);
 
-    private static final BodyImage image = new BodyImage("data/chickenNest.png", 5.5f);
+    private static final SpriteAtlas.Region image = SpriteAtlas.region("data/chickenNest.png");
+    private static final float IMAGE_HEIGHT = 5.5f;
 
     /**
      * Constructs a new ChickenNest in the specified game world.
@@ -28,6 +29,16 @@ public class ChickenNest extends StaticBody{
      */
     public ChickenNest(World world) {
         super(world, penShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
+    }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
     }
 }
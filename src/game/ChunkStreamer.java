@@ -0,0 +1,331 @@
+/**
+ * Streams the collectables and hazards of a tall level in and out of the world around the camera.
+ * <p>
+ * The level is split into horizontal bands (chunks) of a fixed height. Eggs, queen eggs, fires and moving fires
+ * are not created when the level is loaded; instead they are recorded in the chunk they start in.
+ * Before each step, the bodies of every chunk within a margin of the camera centre are created,
+ * and the bodies of chunks that have left that margin are parked, to be created again at their
+ * starting position if the chicken comes back. Fires are destroyed when parked; eggs and queen eggs are
+ * handed back to the level's PickupPool, so the same bodies are reused.
+ * <p>
+ * Bodies that are removed by the game itself, such as collected or burnt eggs, are never created again
+ * until the level is reset.
+ * <p>
+ * This means the cost of each physics step and each frame depends on what is near the chicken, not on the length of the level.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ChunkStreamer implements StepListener {
+    /**
+     * Height of each chunk, in metres.
+     */
+    public static final float CHUNK_HEIGHT = 20f;
+
+    /**
+     * Distance above and below the camera centre within which chunks are live, in metres.
+     * This covers the height of the view (30 metres) with room to spare, so bodies are created before they are seen.
+     */
+    public static final float MARGIN = 40f;
+
+    private final GameLevel level;
+    private final Game game;
+
+    /**
+     * Bodies recorded in each chunk, by chunk index.
+     */
+    private final Map<Integer, List<Record>> chunks = new HashMap<>();
+
+    /**
+     * Range of chunk indexes that are currently live. The range is empty while lowChunk is greater than highChunk.
+     */
+    private int lowChunk = 1;
+    private int highChunk = 0;
+
+    /**
+     * The record of each egg and queen egg currently in the world, so that it can be found when the pickup is collected.
+     */
+    private final Map<Body, Record> livePickups = new IdentityHashMap<>();
+
+    /**
+     * Every record, in the order they were added, which is the same for every instance of a level.
+     */
+    private final List<Record> allRecords = new ArrayList<>();
+
+    private int liveBodies = 0;
+
+    /**
+     * A body recorded in a chunk.
+     */
+    private class Record implements DestructionListener {
+        private final byte type;
+        private final int flags;
+        private final float x;
+        private final float y;
+
+        /**
+         * The body while its chunk is live, otherwise null.
+         */
+        private Body body;
+
+        /**
+         * Whether the body is being destroyed because its chunk was parked.
+         */
+        private boolean parking;
+
+        /**
+         * Whether the body was destroyed or collected by the game, so it must not be created again.
+         */
+        private boolean consumed;
+
+        private Record(byte type, float x, float y, int flags) {
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.flags = flags;
+        }
+
+        @Override
+        public void destroy(DestructionEvent e) {
+            if (!parking) {
+                consumed = true;
+                body = null;
+                liveBodies--;
+            }
+        }
+    }
+
+    /**
+     * Constructs a chunk streamer for the given level and registers it for step events.
+     *
+     * @param level the level whose bodies are streamed
+     * @param game the game the level belongs to
+     */
+    public ChunkStreamer(GameLevel level, Game game) {
+        this.level = level;
+        this.game = game;
+        level.addStepListener(this);
+    }
+
+    /**
+     * Checks whether bodies of the given type can be streamed.
+     *
+     * @param type the body type, as defined in LevelLoader
+     * @return true for eggs, queen eggs, fires and moving fires
+     */
+    public static boolean isStreamable(byte type) {
+        return type == LevelLoader.EGG || type == LevelLoader.QUEEN_EGG
+                || type == LevelLoader.FIRE || type == LevelLoader.MOVING_FIRE;
+    }
+
+    /**
+     * Records a body to be created when its chunk becomes live.
+     *
+     * @param type the body type, as defined in LevelLoader
+     * @param x the x position
+     * @param y the y position
+     * @param flags the body flags, as defined in LevelLoader
+     */
+    public void add(byte type, float x, float y, int flags) {
+        Record record = new Record(type, x, y, flags);
+        allRecords.add(record);
+        int chunk = chunkOf(y);
+        chunks.computeIfAbsent(chunk, k -> new ArrayList<>()).add(record);
+
+        //create it straight away if its chunk is already live
+        if (chunk >= lowChunk && chunk <= highChunk) {
+            spawn(record);
+        }
+    }
+
+    private static boolean isPickup(byte type) {
+        return type == LevelLoader.EGG || type == LevelLoader.QUEEN_EGG;
+    }
+
+    private static int chunkOf(float y) {
+        return (int) Math.floor(y / CHUNK_HEIGHT);
+    }
+
+    /**
+     * Creates and parks bodies so that exactly the chunks within the margin of the camera are live.
+     * The camera follows the chicken, so the chicken's position is used as the camera centre.
+     */
+    public void update() {
+        float centreY = level.getChicken().getPosition().y;
+        int newLow = chunkOf(centreY - MARGIN);
+        int newHigh = chunkOf(centreY + MARGIN);
+        if (newLow == lowChunk && newHigh == highChunk) {
+            return;
+        }
+
+        //park chunks that are no longer in range
+        for (int chunk = lowChunk; chunk <= highChunk; chunk++) {
+            if (chunk < newLow || chunk > newHigh) {
+                park(chunk);
+            }
+        }
+        //create chunks that have come into range
+        for (int chunk = newLow; chunk <= newHigh; chunk++) {
+            if (chunk < lowChunk || chunk > highChunk) {
+                List<Record> records = chunks.get(chunk);
+                if (records != null) {
+                    for (Record record : records) {
+                        spawn(record);
+                    }
+                }
+            }
+        }
+
+        lowChunk = newLow;
+        highChunk = newHigh;
+    }
+
+    private void spawn(Record record) {
+        if (record.consumed || record.body != null) {
+            return;
+        }
+        record.body = LevelLoader.spawn(level, game, record.type, record.x, record.y, record.flags);
+        if (isPickup(record.type)) {
+            //pickups are reused, so they are followed through collected() rather than a destruction listener
+            livePickups.put(record.body, record);
+        } else {
+            record.body.addDestructionListener(record);
+        }
+        liveBodies++;
+    }
+
+    private void park(int chunk) {
+        List<Record> records = chunks.get(chunk);
+        if (records == null) {
+            return;
+        }
+        for (Record record : records) {
+            if (record.body != null) {
+                if (isPickup(record.type)) {
+                    livePickups.remove(record.body);
+                    level.getPickups().release(record.body);
+                } else {
+                    //nothing may keep moving a parked body, or a fire would be moved again each time its chunk returns
+                    level.getHazardMotion().remove(record.body);
+                    record.parking = true;
+                    record.body.destroy();
+                    record.parking = false;
+                }
+                record.body = null;
+                liveBodies--;
+            }
+        }
+    }
+
+    /**
+     * Records that a streamed egg or queen egg has been collected, so that it is not created again.
+     *
+     * @param pickup the egg or queen egg that was collected
+     */
+    public void collected(Body pickup) {
+        Record record = livePickups.remove(pickup);
+        if (record != null) {
+            record.consumed = true;
+            record.body = null;
+            liveBodies--;
+        }
+    }
+
+    public int getRecordCount() {
+        return allRecords.size();
+    }
+
+    /**
+     * Checks whether a recorded body was destroyed or collected by the game.
+     *
+     * @param index the index of the record, in the order records were added
+     * @return true if the body will not be created again
+     */
+    public boolean isConsumed(int index) {
+        return allRecords.get(index).consumed;
+    }
+
+    /**
+     * Returns the body of a record while its chunk is live.
+     *
+     * @param index the index of the record, in the order records were added
+     * @return the body, or null if it is not in the world
+     */
+    public Body getBody(int index) {
+        return allRecords.get(index).body;
+    }
+
+    /**
+     * Parks every live chunk, sets which bodies have been destroyed or collected, and creates the chunks
+     * around the chicken again, with every body at its starting position.
+     * Used to restore a level snapshot, and with nothing consumed, to reset the level.
+     *
+     * @param consumed for each record, in the order records were added, whether it has been destroyed or collected
+     */
+    public void restore(boolean[] consumed) {
+        for (int chunk = lowChunk; chunk <= highChunk; chunk++) {
+            park(chunk);
+        }
+        for (int i = 0; i < allRecords.size(); i++) {
+            allRecords.get(i).consumed = consumed[i];
+        }
+        lowChunk = 1;
+        highChunk = 0;
+        update();
+    }
+
+    /**
+     * Returns the number of streamed bodies currently in the world.
+     *
+     * @return the number of live streamed bodies
+     */
+    public int getLiveBodies() {
+        return liveBodies;
+    }
+
+    /**
+     * Returns the number of streamed bodies that have not been created, or have been parked.
+     *
+     * @return the number of parked bodies
+     */
+    public int getParkedBodies() {
+        int parked = 0;
+        for (List<Record> records : chunks.values()) {
+            for (Record record : records) {
+                if (!record.consumed && record.body == null) {
+                    parked++;
+                }
+            }
+        }
+        return parked;
+    }
+
+    /**
+     * Updates the live chunks before each step.
+     *
+     * @param stepEvent the event fired before each simulation step
+     */
+    @Override
+    public void preStep(StepEvent stepEvent) {
+        update();
+    }
+
+    /**
+     * Not used but required by StepListener.
+     */
+    @Override
+    public void postStep(StepEvent stepEvent) {
+    }
+}
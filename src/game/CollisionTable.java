@@ -0,0 +1,134 @@
+/**
+ * A table of collision handlers, looked up by the types of the two bodies that collided.
+ * <p>
+ * Each pair of body types is registered once with the handler for it. Every body type is given a small number the first time
+ * it is seen, and the handler is then found with a single lookup in a two-dimensional array, so the cost of handling
+ * a collision stays the same however many pickup and hazard types are registered.
+ * <p>
+ * A type that is not registered itself uses the handlers of its nearest registered superclass.
+ * All handlers must be registered before the first collision is dispatched.
+ * <p>
+ * Collision logging is off by default, and can be turned on with {@code -Dgame.logCollisions=true}.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ *
+ * @param <C> the type of the collision listener that the handlers belong to
+ */
+
+package game;
+
+import city.cs.engine.Body;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CollisionTable<C> {
+    /**
+     * Whether collisions and their effects should be printed to the console.
+     */
+    public static final boolean LOGGING = Boolean.getBoolean("game.logCollisions");
+
+    /**
+     * Handles a collision between two bodies of registered types.
+     *
+     * @param <C> the type of the collision listener
+     */
+    @FunctionalInterface
+    public interface Handler<C> {
+        /**
+         * Handles the collision.
+         *
+         * @param listener the collision listener that received the collision
+         * @param reportingBody the body the listener is attached to
+         * @param otherBody the body it collided with
+         */
+        void handle(C listener, Body reportingBody, Body otherBody);
+    }
+
+    /**
+     * Number given to each registered body type.
+     */
+    private final Map<Class<?>, Integer> registeredTypes = new HashMap<>();
+
+    /**
+     * Number used for each body type that has been seen, including the registered superclass lookup.
+     * Types with no registered superclass are given -1.
+     */
+    private final ClassValue<Integer> typeIds = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                Integer id = registeredTypes.get(c);
+                if (id != null) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+    };
+
+    /**
+     * Handlers indexed by the numbers of the reporting type and the other type.
+     */
+    @SuppressWarnings("unchecked")
+    private Handler<C>[][] handlers = new Handler[0][0];
+
+    /**
+     * Registers the handler for collisions between a reporting body of one type and another body of a second type.
+     *
+     * @param reportingType the type of the body the listener is attached to
+     * @param otherType the type of the body it collides with
+     * @param handler the handler for the collision
+     */
+    @SuppressWarnings("unchecked")
+    public void register(Class<? extends Body> reportingType, Class<? extends Body> otherType, Handler<C> handler) {
+        int reportingId = idOf(reportingType);
+        int otherId = idOf(otherType);
+
+        //grow the table to fit any new types
+        int size = registeredTypes.size();
+        if (handlers.length < size) {
+            Handler<C>[][] grown = new Handler[size][size];
+            for (int i = 0; i < handlers.length; i++) {
+                System.arraycopy(handlers[i], 0, grown[i], 0, handlers[i].length);
+            }
+            handlers = grown;
+        }
+
+        handlers[reportingId][otherId] = handler;
+    }
+
+    private int idOf(Class<?> type) {
+        Integer id = registeredTypes.get(type);
+        if (id == null) {
+            id = registeredTypes.size();
+            registeredTypes.put(type, id);
+        }
+        return id;
+    }
+
+    /**
+     * Finds and runs the handler for a collision.
+     *
+     * @param listener the collision listener that received the collision
+     * @param reportingBody the body the listener is attached to
+     * @param otherBody the body it collided with
+     * @return true if a handler was found, false if the collision is ignored
+     */
+    public boolean dispatch(C listener, Body reportingBody, Body otherBody) {
+        int reportingId = typeIds.get(reportingBody.getClass());
+        int otherId = typeIds.get(otherBody.getClass());
+        if (reportingId < 0 || otherId < 0) {
+            return false;
+        }
+
+        Handler<C> handler = handlers[reportingId][otherId];
+        if (handler == null) {
+            return false;
+        }
+        handler.handle(listener, reportingBody, otherBody);
+        return true;
+    }
+}
@@ -15,11 +15,12 @@ package game;
 
 import city.cs.engine.*;
 
-public class Door extends StaticBody{
+public class Door extends StaticBody implements Sprite {
 
     private static final Shape doorShape = new BoxShape(2.5f,6);
 
-    private static final BodyImage image = new BodyImage("data/door.png", 12f);
+    private static final SpriteAtlas.Region image = SpriteAtlas.region("data/door.png");
+    private static final float IMAGE_HEIGHT = 12f;
 
     /**
      * Constructs a new Door in the specified world.
@@ -28,6 +29,16 @@ public class Door extends StaticBody{
      */
     public Door(World world) {
         super(world, doorShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
+    }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
     }
 }
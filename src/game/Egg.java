@@ -2,9 +2,9 @@
  * Represents a collectible egg in the game.
  * <p>
  * Eggs are dynamic bodies that can be collected by the player to increase their egg count.
- * When collected, they are destroyed and a chirp sound is played.
+ * When collected, they are parked in the level's PickupPool to be reused, and a chirp sound is played.
  * <p>
- * The egg is represented by a circular shape and a custom image.
+ * The egg is represented by a circular shape and a custom image, which the view draws as a Sprite.
  * <p>
  * @author      Joyce Ow joyce.ow@city.ac.uk
  * @version     2.0
@@ -15,14 +15,11 @@ package game;
 
 import city.cs.engine.*;
 
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
-import java.io.IOException;
-
-public class Egg extends DynamicBody {
+public class Egg extends DynamicBody implements Sprite {
     private static final Shape eggShape = new CircleShape(1.5f);
 
-    private static final BodyImage image = new BodyImage("data/egg.png", 3f);
+    static final SpriteAtlas.Region image = SpriteAtlas.region("data/egg.png");
+    static final float IMAGE_HEIGHT = 3f;
 
     /**
      * Constructs an new Egg in the specified world.
@@ -31,22 +28,26 @@ public class Egg extends DynamicBody {
      */
     public Egg(World world) {
         super(world, eggShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
     }
 
-    private static SoundClip chirp;
+    /**
+     * Whether the egg is drawn. It is hidden while it is parked in the PickupPool.
+     */
+    private boolean shown = true;
+
+    public void setShown(boolean shown) {
+        this.shown = shown;
+    }
+
+    private static SoundEffect chirp;
 
     /**
-     * Static block to preload sound clips for chirp sound.
+     * Static block to preload the sound effect for chirp sound.
      * This block is executed once when the class is first loaded.
      */
     static {
-        try {
-            chirp = new SoundClip("data/chirp.wav");
-            System.out.println("Loading chirp sound");
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.out.println(e);
-        }
+        chirp = Sounds.load("data/chirp.wav");
     }
 
     /**
@@ -59,4 +60,19 @@ public class Egg extends DynamicBody {
             chirp.play();
         }
     }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
+    }
+
+    @Override
+    public boolean isShown() {
+        return shown;
+    }
 }
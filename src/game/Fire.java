@@ -14,10 +14,11 @@ package game;
 
 import city.cs.engine.*;
 
-public class Fire extends StaticBody {
+public class Fire extends StaticBody implements Sprite {
     private static final Shape fireShape = new PolygonShape(-0.1f,4.95f, 5.99f,-2.3f, 5.91f,-3.72f, 4.62f,-4.76f, -4.27f,-4.89f, -6.09f,-3.35f, -5.56f,-1.28f);
 
-    private static final BodyImage image = new BodyImage("data/fire.png", 10f);
+    private static final SpriteAtlas.Region image = SpriteAtlas.region("data/fire.png");
+    private static final float IMAGE_HEIGHT = 10f;
 
     /**
      * Constructs a new Fire in the specified world.
@@ -26,6 +27,16 @@ public class Fire extends StaticBody {
      */
     public Fire(World world) {
         super(world, fireShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
+    }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
     }
 }
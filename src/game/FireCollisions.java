@@ -12,14 +12,25 @@
 
 package game;
 
+import city.cs.engine.Body;
 import city.cs.engine.CollisionEvent;
 import city.cs.engine.CollisionListener;
 import org.jbox2d.common.Vec2;
 
 public class FireCollisions implements CollisionListener {
+    /**
+     * Handlers for each pair of fire type and body type, registered once for all fires.
+     */
+    private static final CollisionTable<FireCollisions> collisions = new CollisionTable<>();
+
+    static {
+        collisions.register(Fire.class, Egg.class, (listener, fire, other) -> listener.burnEgg(other));
+        collisions.register(Fire.class, WaterProjectile.class, (listener, fire, other) -> listener.level().getProjectiles().recycle(other));
+        collisions.register(LastMovingFire.class, Egg.class, (listener, fire, other) -> listener.burnEgg(other));
+        collisions.register(LastMovingFire.class, WaterProjectile.class, (listener, fire, other) -> listener.hitByWater(other));
+    }
 
     private Fire fire;
-    private int count = 1;
     private LastMovingFire lastMovingFire;
     private Game game;
 
@@ -49,31 +60,70 @@ public class FireCollisions implements CollisionListener {
      * <p>
      * Handles different behaviours depending on what the fire collides with
      * <ul>
-     *     <li>Destroys Egg objects immediately.</li>
-     *     <li>Destroys WaterProjectile and increments the hit counter. After three hits, extinguishes the fire, plays a sound, and spawns a GoldEgg.</li>
+     *     <li>Burns Egg objects, returning them to the pickup pool after the step.</li>
+     *     <li>Recycles WaterProjectile back into the projectile pool. For the LastMovingFire, also increments the hit counter; after three hits, extinguishes the fire, plays a sound, and spawns a GoldEgg.</li>
      * </ul>
      *
      * @param collisionEvent the collision event details
      */
     @Override
     public void collide(CollisionEvent collisionEvent) {
-        if (collisionEvent.getOtherBody() instanceof Egg) {
-            collisionEvent.getOtherBody().destroy();
-        } else if (collisionEvent.getOtherBody() instanceof WaterProjectile) {
-            if (count < 3){
-                collisionEvent.getOtherBody().destroy();
-                count++;
-                System.out.println(count);
-            } else if (count == 3){
-                //extinguish fire
-                collisionEvent.getOtherBody().destroy();
+        collide(collisionEvent.getOtherBody());
+    }
+
+    /**
+     * Handles a collision between the fire and the given body by looking up the handler for the pair of types.
+     * This is separate from the CollisionEvent so that collision handling can be driven directly, for example by benchmarks.
+     *
+     * @param otherBody the body the fire collided with
+     */
+    void collide(Body otherBody) {
+        Body reportingBody = fire != null ? fire : lastMovingFire;
+        collisions.dispatch(this, reportingBody, otherBody);
+    }
+
+    private GameLevel level() {
+        Body reportingBody = fire != null ? fire : lastMovingFire;
+        return (GameLevel) reportingBody.getWorld();
+    }
+
+    /**
+     * Burns an egg that touched the fire, returning it to the pickup pool after the step.
+     */
+    private void burnEgg(Body egg) {
+        level().getPickups().collect(egg);
+    }
+
+    /**
+     * Recycles a water projectile that hit the last moving fire, and puts the fire out after the third hit.
+     */
+    private void hitByWater(Body waterProjectile) {
+        if (!level().getProjectiles().recycle(waterProjectile)) {
+            return;
+        }
+        //the hits are kept in the level's state, so that they are saved in level snapshots
+        LevelState state = level().getState();
+        if (state.getWaterHits() < 2){
+            state.setWaterHits(state.getWaterHits() + 1);
+            if (CollisionTable.LOGGING) {
+                System.out.println("Water hits: " + state.getWaterHits());
+            }
+        } else if (state.getWaterHits() == 2){
+            //extinguish fire
+            state.setWaterHits(3);
+            //the fire's own level, as the game may have moved on to another level by the time the step ends
+            GameLevel level = level();
+            level.defer(() -> {
                 lastMovingFire.destroy();
-                QueenEgg.playYay(game);
-                System.out.println("Fire extinguished! Good job!");
 
                 //spawn gold egg after fire is extinguished
-                GoldEgg goldEgg = new GoldEgg(game.getLevel());
+                GoldEgg goldEgg = new GoldEgg(level);
                 goldEgg.setPosition(new Vec2(5, -107.5f));
+                level.addPlaced(goldEgg, 0);
+            });
+            QueenEgg.playYay(game);
+            if (CollisionTable.LOGGING) {
+                System.out.println("Fire extinguished! Good job!");
             }
         }
     }
@@ -15,10 +15,11 @@ package game;
 
 import city.cs.engine.*;
 
-public class Fireworks extends StaticBody {
+public class Fireworks extends StaticBody implements Sprite {
     private static final Shape fireworkShape = new BoxShape(10,10);
 
-    private static final BodyImage image = new BodyImage("data/fireworks.gif", 20f);
+    private static final SpriteAtlas.Region image = SpriteAtlas.image("data/fireworks.gif");
+    private static final float IMAGE_HEIGHT = 20f;
 
     /**
      * Constructs a new Fireworks in the specified world.
@@ -26,6 +27,21 @@ public class Fireworks extends StaticBody {
      */
     public Fireworks(World world) {
         super(world, fireworkShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
+    }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
+    }
+
+    @Override
+    public boolean isCulled() {
+        return false;
     }
 }
@@ -86,14 +86,13 @@ public class GUI {
     public void addIntro() {
         level = game.getLevel();
         level.stop();
-        Image background = new ImageIcon("data/background3.jpg").getImage();
-
         JPanel overlayPanel = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
                 //draw child components (like text and button)
                 super.paintComponent(g);
-                g.drawImage(background, 0, 0, getWidth(), getHeight(), this);
+                //the background is scaled to the panel once, not on every paint
+                g.drawImage(AssetCache.getImage("data/background3.jpg", getWidth(), getHeight()), 0, 0, this);
             }
         };
         overlayPanel.setOpaque(false);
@@ -207,10 +206,6 @@ public class GUI {
                 // regain focus for keyboard input
                 view.requestFocusInWindow();
 
-                if (level instanceof Level2) {
-                    ((Level2) level).resumeTimer();
-                }
-
                 // resume the game
                 level.start();
             }
@@ -13,26 +13,73 @@ package game;
 import city.cs.engine.*;
 
 import javax.swing.*;
-
 import java.io.IOException;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
+
 
 /*
  * Your main game entry point
  */
 public class Game {
-    private GameLevel level;
+    /**
+     * Whether the time taken to load the sprite atlas, switch levels and reset the game should be printed to the console.
+     */
+    public static final boolean LOGGING = Boolean.getBoolean("game.logTimings");
+
+    private volatile GameLevel level;
     private GameView view;
     private ChickenController chickenController;
     private JFrame frame;
-    private SoundClip gameMusic;
+    private MusicTrack gameMusic;
+
+    /**
+     * Music for the level after the current one, decoded ahead so it can start as soon as that level does.
+     */
+    private MusicTrack nextMusic;
     private boolean isMuted = false;
     private boolean isRoastedSoundPlaying = false;
     private GUI gui;
 
+    /**
+     * Whether this game runs without a window, view, GUI or sound.
+     */
+    private final boolean headless;
+
+    /**
+     * Builds the next level in the background while the current one is played.
+     */
+    private final LevelPreloader preloader = new LevelPreloader();
+
+    /**
+     * Time taken by the last switch between levels, in nanoseconds.
+     */
+    private long lastSwapNanos = 0;
+
+    /**
+     * The first level, kept once it has been built so that resetting the game reuses its bodies.
+     */
+    private Level1 firstLevel;
+
+    /**
+     * A snapshot of the first level as it was when it was built, restored into it to reset the game.
+     */
+    private byte[] firstLevelStart;
+
+    /**
+     * Number of physics steps taken by every level of this game, counted across level changes.
+     */
+    private volatile long steps = 0;
+
+    /**
+     * Records the keys handled by the chicken controller, if the game was run with {@code -Dgame.recordInput=<file>}.
+     */
+    private InputRecorder inputRecorder;
+
     /** Initialise a new Game. */
     public Game() {
+        headless = false;
+
+        //decode every image in the background so level changes and resets do not stall
+        AssetCache.preloadAsync();
 
         //initialise level to Level1
         level = new Level3(this);
@@ -43,6 +90,24 @@ public class Game {
         view.addKeyListener(chickenController);
         view.addMouseListener(new GiveFocus());
 
+        //record the keys pressed, so the game can be replayed headlessly
+        String inputLog = System.getProperty("game.recordInput");
+        if (inputLog != null) {
+            inputRecorder = new InputRecorder(inputLog, this);
+            inputRecorder.start(level);
+            chickenController.setRecorder(inputRecorder);
+        }
+
+        //race a recorded run of the level, drawn over it as a ghost
+        String ghostFile = System.getProperty("game.ghost");
+        if (ghostFile != null) {
+            try {
+                view.setGhost(GhostReplay.load(ghostFile));
+            } catch (IOException e) {
+                System.out.println("Error loading ghost: " + e);
+            }
+        }
+
         //optional: draw a 1-metre grid over the view
         // view.setGridResolution(1);
 
@@ -66,6 +131,59 @@ public class Game {
         gui = new GUI(this, view);
         gui.addIntro();
         updateMusicForLevel();
+
+        //start building the next level while this one is played
+        preloadNextLevel();
+    }
+
+    /**
+     * Initialises a game with no window, view, GUI or sound, used to run levels headlessly.
+     * The game is not muted, so that sounds still reach the audio backend, which plays nothing when headless.
+     *
+     * @param headless whether the game is headless
+     */
+    private Game(boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Creates a game that runs without a window, view, GUI or sound device.
+     * <p>
+     * Unless an audio backend such as RecordingAudio has already been chosen, NullAudio is used, so no sound device is opened.
+     * The level to run must be set with {@link #setHeadlessLevel(GameLevel)}.
+     *
+     * @return a new headless game
+     */
+    public static Game createHeadless() {
+        if (!Sounds.hasBackend()) {
+            Sounds.setBackend(new NullAudio());
+        }
+        return new Game(true);
+    }
+
+    /**
+     * Sets the level of a headless game.
+     *
+     * @param level the level to run, which must have been built for this game
+     */
+    void setHeadlessLevel(GameLevel level) {
+        this.level = level;
+        preloadNextLevel();
+    }
+
+    /**
+     * Counts a physics step taken by the current level. Called by the level at the end of each step.
+     */
+    void stepTaken() {
+        steps++;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public boolean isHeadless() {
+        return headless;
     }
 
     public JFrame getFrame() {
@@ -75,41 +193,69 @@ public class Game {
     /**
      * Updates the background music based on the current game level.
      * <p>
-     * Stops any currently playing music, then attempts to load and play a new music track based on the current game level.
+     * The new level's music crossfades with the old level's music, which is then closed.
+     * If the new music was prefetched while the previous level was played, it starts at once.
      * Music is only played if it is successfully loaded and the game is not muted.
+     * The music for the level after this one is then prefetched in the background.
      * <p>
-     * Audio-related exceptions are also handled (eg. unsupported file formats, I/O errors, or unavailable audio lines).
+     * Music that is missing or cannot be played is reported by Sounds and skipped.
      */
     private void updateMusicForLevel() {
-        //stop old music
-        if (gameMusic != null) {
-            gameMusic.stop();
+        MusicTrack previous = gameMusic;
+
+        //music is streamed from disk while it plays, rather than loaded whole
+        String fileName = musicFileFor(level);
+        if (nextMusic != null && nextMusic.getFileName().equals(fileName)) {
+            gameMusic = nextMusic;
+            nextMusic = null;
+        } else {
+            gameMusic = fileName != null ? Sounds.music(fileName) : null;
         }
 
-        /**
-         * Static block to preload sound clips for gameMusic.
-         * This block is executed once when the class is first loaded.
-         */
-        try {
-            if (level instanceof Level1) {
-                gameMusic = new SoundClip("data/level1.wav");
-            } else if (level instanceof Level2) {
-                gameMusic = new SoundClip("data/level2.wav");
-            } else if (level instanceof Level3) {
-                gameMusic = new SoundClip("data/level3.wav");
-            }
+        //play music only if not muted
+        if (gameMusic != null && !isMuted) {
+            gameMusic.loop();
+        }
 
-            //play music only if not muted
-            if (gameMusic != null && !isMuted) {
-                gameMusic.loop();
-            }
+        //the old music fades out under the new music before its file is closed
+        if (previous != null && previous != gameMusic) {
+            previous.close();
+        }
+
+        //decode the start of the next level's music while this level is played
+        if (nextMusic != null) {
+            nextMusic.close();
+        }
+        String nextFileName = level instanceof Level1 ? musicFileFor(Level2.class)
+                : level instanceof Level2 ? musicFileFor(Level3.class) : null;
+        nextMusic = nextFileName != null ? Sounds.music(nextFileName) : null;
+        if (nextMusic != null) {
+            nextMusic.prefetch();
+        }
+    }
 
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.out.println("Error loading music: " + e);
+    /**
+     * Returns the music file played during the given level.
+     *
+     * @param level the level
+     * @return the path of the music file, or null if the level has no music
+     */
+    private static String musicFileFor(GameLevel level) {
+        return level != null ? musicFileFor(level.getClass()) : null;
+    }
+
+    private static String musicFileFor(Class<?> levelClass) {
+        if (levelClass == Level1.class) {
+            return "data/level1.wav";
+        } else if (levelClass == Level2.class) {
+            return "data/level2.wav";
+        } else if (levelClass == Level3.class) {
+            return "data/level3.wav";
         }
+        return null;
     }
 
-    public SoundClip getGameMusic() {
+    public MusicTrack getGameMusic() {
         return gameMusic;
     }
 
@@ -144,7 +290,9 @@ public class Game {
             if (gameMusic != null) {
                 gameMusic.stop();
             }
-            Chicken.getRoastedSound().stop();
+            if (Chicken.getRoastedSound() != null) {
+                Chicken.getRoastedSound().stop();
+            }
             gui.getMuteButton().setText("🔇");
             isMuted = true;
         }
@@ -178,51 +326,93 @@ public class Game {
      *     <li>the music is updated to match the new level.</li>
      *     <li>an introduction screen is added for the new level via GUI</li>
      * </ul>
+     * This is called by collision handlers on the simulation thread, so the view, GUI and music are updated later on the event dispatch thread.
      */
     public void goToNextLevel() {
         if (level instanceof Level1) {
-            //stop the current level
-            level.stop();
-            //switch to Level2
-            level = new Level2(this);
-            //update the view and background with the new level
-            view.setWorld(level);
-            view.setBackgroundImage(level);
-            //update chicken reference
-            chickenController.updateChicken(level.getChicken(), level);
-            //add step listener to the view to ensure view follows chicken as it walks
-            level.addStepListener(view);
-            //JFrame debugView = new DebugViewer(level, 600, 600);
-            //pause the timer
-            ((Level2) level).pauseTimer();
-            //update music based on the current level
-            updateMusicForLevel();
-            //add in introduction screen
-            gui.addIntro();
-
+            //switch to Level2, which should already have been built in the background
+            switchLevel(preloader.take(() -> new Level2(this)));
 
         }else if (level instanceof Level2){
-            //stop the current level
-            level.stop();
-            //switch to Level3
-            level = new Level3(this);
+            //switch to Level3, which should already have been built in the background
+            switchLevel(preloader.take(() -> new Level3(this)));
+
+        } else if (level instanceof Level3){
+            //end the game
+            System.out.println("Well done! Game completed.");
+        }
+    }
+
+    /**
+     * Stops the current level and replaces it with the given level.
+     * <p>
+     * For a headless game only the level reference is changed, as there is no view, GUI or music to update.
+     * Otherwise they are updated on the event dispatch thread, as the level is switched while the old level holds its step lock.
+     *
+     * @param next the level to switch to
+     */
+    private void switchLevel(GameLevel next) {
+        long start = System.nanoTime();
+
+        //stop the current level
+        level.stop();
+        level = next;
+
+        lastSwapNanos = System.nanoTime() - start;
+        if (LOGGING) {
+            System.out.printf("Switched to %s in %.2f ms (waited %.2f ms for it to load)%n",
+                    level.getClass().getSimpleName(), lastSwapNanos / 1e6, preloader.getLastWaitNanos() / 1e6);
+        }
+
+        //start building the level after this one
+        preloadNextLevel();
+
+        if (headless) {
+            return;
+        }
+
+        //never touch Swing while holding the step lock, as the event dispatch thread may be waiting for it
+        SwingUtilities.invokeLater(() -> {
             //update the view and background with the new level
-            view.setWorld(level);
-            view.setBackgroundImage(level);
+            view.setWorld(next);
+            view.setBackgroundImage(next);
             //update chicken reference
-            chickenController.updateChicken(level.getChicken(), level);
-            //add step listener to the view to ensure view follows chicken as it walks
-            level.addStepListener(view);
+            chickenController.updateChicken(next.getChicken(), next);
             //JFrame debugView = new DebugViewer(level, 600, 600);
             //update music based on the current level
             updateMusicForLevel();
             //add in introduction screen
             gui.addIntro();
+        });
+    }
 
-        } else if (level instanceof Level3){
-            //end the game
-            System.out.println("Well done! Game completed.");
+    /**
+     * Starts building the level that follows the current level in the background, if there is one.
+     * <p>
+     * A headless game builds the next level on its own thread when it gets there instead. Headless games are run many at once,
+     * and most never reach the next level, so preloading would queue throwaway levels on the shared preloader thread
+     * and make a game that does get there wait behind the other games' levels.
+     */
+    private void preloadNextLevel() {
+        if (headless) {
+            return;
         }
+        if (level instanceof Level1) {
+            preloader.preload(() -> new Level2(this));
+        } else if (level instanceof Level2) {
+            preloader.preload(() -> new Level3(this));
+        } else {
+            preloader.cancel();
+        }
+    }
+
+    /**
+     * Returns how long the last switch between levels took, not counting any wait for the level to finish building.
+     *
+     * @return the time taken by the last level switch in nanoseconds
+     */
+    public long getLastSwapNanos() {
+        return lastSwapNanos;
     }
 
     public GameLevel getLevel() {
@@ -237,7 +427,6 @@ public class Game {
      * <ul>
      *     <li>the reset button is hidden and roasted sound effects are stopped.</li>
      *     <li>the current background music and current game level are stopped.</li>
-     *     <li>if the current level is Level2, the internal timer is stopped.</li>
      *     <li>a new instance of Level1 is created, and the view and background image are updated.</li>
      *     <li>the chicken's state is reset and the chicken's controller is updated.</li>
      *     <li>necessary listeners are added and focus for user input is requested.</li>
@@ -251,7 +440,9 @@ public class Game {
         gui.hideResetButton();
 
         //stop roasted sound
-        Chicken.getRoastedSound().stop();
+        if (Chicken.getRoastedSound() != null) {
+            Chicken.getRoastedSound().stop();
+        }
         setRoastedSoundPlaying(false);
 
         //stop the current music before resetting the game
@@ -262,12 +453,20 @@ public class Game {
         //reset the game by reinitializing to the first level
         level.stop();
 
-        //stop the old timer
-        if (level instanceof Level2) {
-            ((Level2) level).pauseTimer();
+        //reuse the first level if it has been built before, rather than building all its bodies again;
+        //while input is recorded, build it afresh, as a replay steps a freshly built level and a level restored
+        //in place holds its bodies in a different order, which the physics engine can solve differently
+        long start = System.nanoTime();
+        if (firstLevel == null || inputRecorder != null) {
+            firstLevel = new Level1(this);
+            firstLevelStart = firstLevel.snapshot();
+        } else {
+            firstLevel.restore(firstLevelStart);
+        }
+        level = firstLevel;
+        if (LOGGING) {
+            System.out.printf("Reset to %s in %.2f ms%n", level.getClass().getSimpleName(), (System.nanoTime() - start) / 1e6);
         }
-
-        level = new Level1(this);
         //update the view and background with the new level
         view.setWorld(level);
         view.setBackgroundImage(level);
@@ -275,9 +474,10 @@ public class Game {
         //update the chicken controller
         chickenController.updateChicken(level.getChicken(), level);
         level.getChicken().resetRoasted();
-        //add step listener to view
-        level.addStepListener(view);
-
+        //record the new run from its start
+        if (inputRecorder != null) {
+            inputRecorder.start(level);
+        }
         //make sure keyboard input works again
         view.requestFocusInWindow();
 
@@ -287,10 +487,13 @@ public class Game {
         //update music based on the current level
         updateMusicForLevel();
         //only start the music if game is not muted
-        if (isMuted) {
+        if (isMuted && gameMusic != null) {
             gameMusic.stop();
         }
 
+        //start building Level2 while Level1 is played
+        preloadNextLevel();
+
         //start the level
         level.start();
     }
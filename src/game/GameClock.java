@@ -0,0 +1,192 @@
+/**
+ * Keeps the time of a level in physics steps, and runs tasks after a number of steps, once or repeatedly.
+ * <p>
+ * Every GameLevel has its own clock, which moves on by one tick at the end of every step the level takes. Timers such as
+ * the Level2 countdown are therefore exact in game time: they never drift when the view is busy painting or another level
+ * is being built, they stop whenever the level stops, and a headless run times them the same as a played one.
+ * Any number of tasks can be waiting; they are kept in order of the step they are due, so each step only looks at those that are due.
+ * <p>
+ * Tasks run on the thread stepping the level, after the step, so they can change the world directly.
+ * A task that does slow work which does not touch the world can instead be run on a shared background thread when it is due,
+ * so it does not hold up the step or the Swing event thread.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.StepEvent;
+import city.cs.engine.StepListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class GameClock implements StepListener {
+    /**
+     * Background threads shared by every clock, for tasks that do not run on the stepping thread.
+     */
+    private static final ExecutorService background = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "game-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A task waiting on the clock.
+     */
+    public static final class Task {
+        private final Runnable action;
+        private final long period;
+        private final boolean inBackground;
+        private final long order;
+        private long due;
+        private volatile boolean cancelled;
+
+        private Task(Runnable action, long due, long period, boolean inBackground, long order) {
+            this.action = action;
+            this.due = due;
+            this.period = period;
+            this.inBackground = inBackground;
+            this.order = order;
+        }
+
+        /**
+         * Stops the task from running again. A task can cancel itself while it runs.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Tasks waiting to run, the soonest due first, and in the order they were scheduled when due on the same step.
+     */
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>((a, b) ->
+            a.due != b.due ? Long.compare(a.due, b.due) : Long.compare(a.order, b.order));
+
+    /**
+     * Tasks due on the current step, reused every step.
+     */
+    private final List<Task> due = new ArrayList<>();
+
+    private volatile long step = 0;
+    private long scheduled = 0;
+
+    /**
+     * Runs a task once, after the given number of steps.
+     *
+     * @param delaySteps the number of steps to wait, at least one
+     * @param action the task
+     * @return the task, which can be cancelled
+     */
+    public Task schedule(long delaySteps, Runnable action) {
+        return add(action, delaySteps, 0, false);
+    }
+
+    /**
+     * Runs a task every given number of steps, starting that many steps from now, until it is cancelled.
+     *
+     * @param periodSteps the number of steps between runs, at least one
+     * @param action the task
+     * @return the task, which can be cancelled
+     */
+    public Task scheduleRepeating(long periodSteps, Runnable action) {
+        return add(action, periodSteps, periodSteps, false);
+    }
+
+    /**
+     * Runs a task once on a background thread, after the given number of steps.
+     * The task must not change the world, as the level carries on stepping while it runs.
+     *
+     * @param delaySteps the number of steps to wait, at least one
+     * @param action the task
+     * @return the task, which can be cancelled until it starts
+     */
+    public Task scheduleInBackground(long delaySteps, Runnable action) {
+        return add(action, delaySteps, 0, true);
+    }
+
+    private synchronized Task add(Runnable action, long delaySteps, long periodSteps, boolean inBackground) {
+        if (delaySteps < 1) {
+            throw new IllegalArgumentException("tasks must wait at least one step");
+        }
+        Task task = new Task(action, step + delaySteps, periodSteps, inBackground, scheduled++);
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Returns the number of steps the level has taken since it was built.
+     *
+     * @return the step count
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * Returns the number of tasks waiting, including cancelled tasks that have not yet been cleared.
+     *
+     * @return the number of tasks
+     */
+    public synchronized int getTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Not used but required by StepListener.
+     */
+    @Override
+    public void preStep(StepEvent stepEvent) {
+    }
+
+    /**
+     * Moves the clock on by one step and runs the tasks that are now due.
+     *
+     * @param stepEvent the event fired after each simulation step
+     */
+    @Override
+    public void postStep(StepEvent stepEvent) {
+        //take the due tasks out while holding the lock, but run them without it, so they can schedule more
+        synchronized (this) {
+            step++;
+            while (!tasks.isEmpty() && tasks.peek().due <= step) {
+                Task task = tasks.poll();
+                if (task.cancelled) {
+                    continue;
+                }
+                if (task.period > 0) {
+                    task.due += task.period;
+                    tasks.add(task);
+                }
+                due.add(task);
+            }
+        }
+
+        for (int i = 0; i < due.size(); i++) {
+            Task task = due.get(i);
+            if (task.cancelled) {
+                continue;
+            }
+            if (task.inBackground) {
+                background.execute(() -> {
+                    if (!task.cancelled) {
+                        task.action.run();
+                    }
+                });
+            } else {
+                task.action.run();
+            }
+        }
+        due.clear();
+    }
+}
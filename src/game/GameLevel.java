@@ -6,6 +6,15 @@
  * <p>
  * Subclasses must implement logic for determining when a level is complete or when the game is over.
  * <p>
+ * Starting a level runs its physics on its own thread, through a SimulationLoop, rather than in step with the view.
+ * <p>
+ * Changes to the world made while handling a collision, such as removing a collected egg, are deferred with defer()
+ * and carried out after the step, so bodies are never destroyed in the middle of one.
+ * <p>
+ * The state of a level can be saved into a compact snapshot and restored in place, which is how the game is reset
+ * and how checkpoints are made. Bodies the level places outside its chunk streamer are kept in a list for this,
+ * so each has the same index in every instance of the level; see LevelSnapshot.
+ * <p>
  * @author      Joyce Ow joyce.ow@city.ac.uk
  * @version     2.0
  * @since       2025
@@ -13,7 +22,18 @@
 
 package game;
 
+import city.cs.engine.Body;
+import city.cs.engine.StepEvent;
+import city.cs.engine.StepListener;
 import city.cs.engine.World;
+import org.jbox2d.common.Vec2;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 public abstract class GameLevel extends World {
     /**
@@ -22,6 +42,73 @@ public abstract class GameLevel extends World {
     private Chicken chicken;
     private Game game;
 
+    /**
+     * Streams bodies in and out around the camera, or null if the whole level is always live.
+     */
+    private ChunkStreamer chunkStreamer;
+
+    /**
+     * Progress of this run of the level that is not kept in its bodies, such as whether the water bucket has been collected.
+     */
+    private final LevelState state = new LevelState();
+
+    /**
+     * Counts the level's steps and runs timers, such as the Level2 countdown, in game time.
+     */
+    private final GameClock clock = new GameClock();
+
+    /**
+     * Moves every moving fire in the level each step.
+     */
+    private HazardMotion hazardMotion;
+
+    /**
+     * Eggs and queen eggs in the level, reused rather than destroyed when they are collected.
+     */
+    private PickupPool pickups;
+
+    /**
+     * Eggs, fires, grass and the other sprites in the level, indexed by position so that the view only draws those it can see.
+     */
+    private SpriteIndex sprites;
+
+    /**
+     * Water projectiles fired in the level, reused for every shot.
+     */
+    private ProjectilePool projectiles;
+
+    /**
+     * Changes to the world waiting to be carried out after the current step.
+     */
+    private final ArrayDeque<Runnable> deferred = new ArrayDeque<>();
+
+    /**
+     * Bodies waiting to be destroyed after the current step.
+     */
+    private final Set<Body> destroying = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Steps the level on its own thread while it is running.
+     */
+    private final SimulationLoop simulation = new SimulationLoop(this);
+
+    /**
+     * Held while the level steps, and while a snapshot of it is taken for the view.
+     */
+    private final Object stepLock = new Object();
+
+    /**
+     * Bodies placed in the level outside the chunk streamer, such as walls and fires when the level is not streamed,
+     * in the order they were placed, with the LevelLoader flags each was placed with. Destroyed bodies leave a null.
+     */
+    private final List<Body> placed = new ArrayList<>();
+    private final List<Integer> placedFlags = new ArrayList<>();
+
+    /**
+     * Where the chicken starts, as declared in the level file.
+     */
+    private Vec2 chickenStart = new Vec2(0, 0);
+
     /**
      * Constructs a new game level and initialises the chicken character.
      *
@@ -30,6 +117,30 @@ public abstract class GameLevel extends World {
     public GameLevel(Game game){
         this.game=game;
 
+        sprites = new SpriteIndex();
+        addStepListener(sprites);
+
+        hazardMotion = new HazardMotion(state);
+        addStepListener(hazardMotion);
+
+        pickups = new PickupPool(this);
+        projectiles = new ProjectilePool(this, ProjectilePool.CAPACITY);
+        addStepListener(projectiles);
+        addStepListener(clock);
+        addStepListener(new StepListener() {
+            @Override
+            public void preStep(StepEvent stepEvent) {
+            }
+
+            @Override
+            public void postStep(StepEvent stepEvent) {
+                runDeferred();
+                if (game != null) {
+                    game.stepTaken();
+                }
+            }
+        });
+
         chicken = new Chicken(this, game);
     }
 
@@ -37,6 +148,200 @@ public abstract class GameLevel extends World {
         return chicken;
     }
 
+    /**
+     * Starts running the level's physics on its simulation thread.
+     */
+    @Override
+    public void start() {
+        simulation.start();
+    }
+
+    /**
+     * Stops running the level's physics. The step in progress, if any, finishes first.
+     */
+    @Override
+    public void stop() {
+        simulation.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return simulation.isRunning();
+    }
+
+    public SimulationLoop getSimulation() {
+        return simulation;
+    }
+
+    public Object getStepLock() {
+        return stepLock;
+    }
+
+    /**
+     * Splits the level into chunks whose eggs, queen eggs and fires are only created while they are near the camera.
+     * This must be called before the level file is loaded, so that those bodies are recorded instead of created.
+     */
+    protected void enableChunkStreaming() {
+        chunkStreamer = new ChunkStreamer(this, game);
+    }
+
+    public ChunkStreamer getChunkStreamer() {
+        return chunkStreamer;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    public LevelState getState() {
+        return state;
+    }
+
+    public HazardMotion getHazardMotion() {
+        return hazardMotion;
+    }
+
+    public SpriteIndex getSprites() {
+        return sprites;
+    }
+
+    public PickupPool getPickups() {
+        return pickups;
+    }
+
+    public ProjectilePool getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Queues a change to the world to be carried out after the current step.
+     *
+     * @param change the change to make
+     */
+    public void defer(Runnable change) {
+        deferred.add(change);
+    }
+
+    /**
+     * Destroys a body after the current step. A body that is already waiting to be destroyed is left alone,
+     * so a second contact with it in the same step is not handled twice.
+     *
+     * @param body the body to destroy
+     * @return true if the body will be destroyed, false if it was already waiting to be destroyed
+     */
+    public boolean destroyAfterStep(Body body) {
+        if (!destroying.add(body)) {
+            return false;
+        }
+        defer(() -> {
+            destroying.remove(body);
+            body.destroy();
+        });
+        return true;
+    }
+
+    /**
+     * Carries out every deferred change. This runs after each step, and can be called directly when the
+     * world is not stepping, for example by benchmarks that handle collisions themselves.
+     */
+    void runDeferred() {
+        Runnable change;
+        while ((change = deferred.poll()) != null) {
+            change.run();
+        }
+    }
+
+    /**
+     * Adds a body placed in the level outside the chunk streamer to the bodies kept in level snapshots.
+     * Its place in the list is emptied if it is destroyed.
+     *
+     * @param body the body
+     * @param flags the LevelLoader flags it was placed with, used to create it again
+     */
+    void addPlaced(Body body, int flags) {
+        setPlaced(placed.size(), body, flags);
+    }
+
+    /**
+     * Puts a body at the given index of the placed bodies, such as one created again by a snapshot.
+     */
+    void setPlaced(int index, Body body, int flags) {
+        while (placed.size() <= index) {
+            placed.add(null);
+            placedFlags.add(0);
+        }
+        placed.set(index, body);
+        placedFlags.set(index, flags);
+        body.addDestructionListener(e -> {
+            if (index < placed.size() && placed.get(index) == body) {
+                placed.set(index, null);
+            }
+        });
+    }
+
+    int getPlacedCount() {
+        return placed.size();
+    }
+
+    /**
+     * Returns a placed body.
+     *
+     * @param index the index of the body
+     * @return the body, or null if it has been destroyed
+     */
+    Body getPlaced(int index) {
+        return placed.get(index);
+    }
+
+    int getPlacedFlags(int index) {
+        return placedFlags.get(index);
+    }
+
+    /**
+     * Forgets the placed bodies from the given index on.
+     */
+    void truncatePlaced(int size) {
+        while (placed.size() > size) {
+            placed.remove(placed.size() - 1);
+            placedFlags.remove(placedFlags.size() - 1);
+        }
+    }
+
+    /**
+     * Saves the state of the level into a compact snapshot, which can be restored into this level or another instance of the same level.
+     *
+     * @return the snapshot
+     */
+    public byte[] snapshot() {
+        synchronized (stepLock) {
+            return LevelSnapshot.take(this);
+        }
+    }
+
+    /**
+     * Puts the level back to the state saved in a snapshot, reusing its bodies where it can rather than building them again.
+     *
+     * @param snapshot a snapshot of this level or another instance of the same level
+     * @throws IllegalArgumentException if the snapshot is not of this kind of level
+     */
+    public void restore(byte[] snapshot) {
+        synchronized (stepLock) {
+            LevelSnapshot.restore(this, snapshot);
+        }
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public Vec2 getChickenStart() {
+        return chickenStart;
+    }
+
+    public void setChickenStart(Vec2 chickenStart) {
+        this.chickenStart = chickenStart;
+    }
+
     /**
      *Determines whether the level is complete.
      *
@@ -1,11 +1,23 @@
 /**
  * A customised view for displaying the game world and GUI elements.
  * <p>
- * This class extends UserView Class and implements StepListener to follow the chicken's movement and render various UI elements
+ * This class extends UserView Class to follow the chicken's movement and render various UI elements
  * such as egg count, game over messages, level-specified backgrounds, and timers.
  * <p>
  * The camera smoothly follows the chicken character as it moves through the level, and level-specific logic is used to adjust background images and messages.
  * <p>
+ * Every body with an image is drawn by the view as a sprite, rather than by the engine. Only the culled sprites found in the level's SpriteIndex within
+ * the view are drawn, so the cost of a frame depends on what is on screen, not on the length of the level.
+ * <p>
+ * The view is repainted by its own render timer, separately from the physics steps, and never touches the world while it paints.
+ * Each frame is drawn from the latest snapshot taken by the level's SimulationLoop, with the camera and every sprite
+ * moved to where they are between their last two physics steps, so frames in between steps still move smoothly.
+ * The view tells the loop what area it shows, so the loop knows which sprites to capture; while the level is not running, the view takes the snapshots itself.
+ * <p>
+ * A GhostReplay can be shown over the level, its bodies drawn see-through. While the level runs, the ghost is kept at the
+ * same number of steps since the level was set as the level has taken, so it races the player; a ghost of another level is not shown.
+ * While the level itself is not running, the camera follows the ghost chicken instead, and whoever plays the ghost moves its frame on.
+ * <p>
  * @author      Joyce Ow joyce.ow@city.ac.uk
  * @version     2.0
  * @since       2025
@@ -13,25 +25,98 @@
 
 package game;
 
-import city.cs.engine.StepEvent;
-import city.cs.engine.StepListener;
 import city.cs.engine.UserView;
 import city.cs.engine.World;
 import org.jbox2d.common.Vec2;
 
-import javax.swing.*;
+import javax.swing.Timer;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.VolatileImage;
 
-public class GameView extends UserView implements StepListener{
+public class GameView extends UserView {
     private Image background;
 
+    /**
+     * The background, drawn once into an image the size of the view that is kept in video memory where possible.
+     * It is only drawn again when the level's background or the view size changes, or the video memory is lost.
+     */
+    private VolatileImage backgroundCache;
+
+    /**
+     * Whether the background has changed since it was last drawn into the cache.
+     */
+    private boolean backgroundChanged = true;
+
     /**
      * The camera's target position for smooth transitions.
      */
     private Vec2 targetPosition;
 
+    /**
+     * How often the view is repainted, in milliseconds. This is faster than the physics steps, to suit high refresh rate displays.
+     */
+    public static final int FRAME_MILLIS = 7;
+
+    /**
+     * Repaints the view every frame while the level is running.
+     */
+    private final Timer renderTimer;
+
+    /**
+     * Where the chicken is shown this frame, and the centre of the camera, reused every frame.
+     */
+    private final Vec2 chickenPosition = new Vec2();
+    private final Vec2 cameraCentre = new Vec2();
+
     private GameLevel level;
 
+    /**
+     * Distance around the view within which sprites are still drawn, in metres.
+     * This is at least half the height of the largest sprite, so sprites partly in view are not cut off.
+     */
+    private static final float SPRITE_MARGIN = 10f;
+
+    /**
+     * Where a sprite is drawn, in the world and in the view, reused for every sprite.
+     */
+    private final Vec2 spritePosition = new Vec2();
+    private final Point2D.Float spriteCentre = new Point2D.Float();
+
+    /**
+     * The point of the world at the centre of the view, kept by setCentre so each frame can map between the world
+     * and the view without the engine's viewToWorld and worldToView, which allocate a point for every call.
+     * If the view has not set its centre by the first frame, it is read from the engine once.
+     */
+    private Vec2 viewCentre;
+
+    /**
+     * Number of sprites drawn and culled in the last frame.
+     */
+    private int drawnSprites = 0;
+    private int culledSprites = 0;
+
+    /**
+     * The egg count, timer and messages drawn over the game.
+     */
+    private final Hud hud = new Hud();
+
+    /**
+     * The recorded run drawn over the level, or null for none.
+     */
+    private GhostReplay ghost;
+
+    /**
+     * The level's step count when it was set, which the ghost's frames are counted from while the level runs.
+     */
+    private long ghostStartSteps;
+
+    /**
+     * How see-through ghost bodies are drawn.
+     */
+    private static final AlphaComposite GHOST_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.45f);
+
     /**
      * Constructs the game view and initialises background and listeners.
      *
@@ -44,10 +129,64 @@ public class GameView extends UserView implements StepListener{
         super(w, width, height);
         level = w;
         setBackgroundImage(level);
-        w.addStepListener(this);
 
         //initialise the camera's target position
         targetPosition = level.getChicken().getPosition();
+
+        renderTimer = new Timer(FRAME_MILLIS, e -> renderFrame());
+        renderTimer.start();
+    }
+
+    /**
+     * Moves the camera and repaints the view, if the level is running.
+     */
+    private void renderFrame() {
+        if (level.isRunning()) {
+            if (ghost != null && ghost.getLevel() == HeadlessRunner.levelNumber(level)) {
+                ghost.seek((int) (level.getSimulation().getSteps() - ghostStartSteps) - 1);
+            }
+            updateCamera();
+            repaint();
+        } else if (ghost != null) {
+            //follow the ghost chicken when the ghost is played on its own
+            if (ghost.getChickenPosition(cameraCentre) != null) {
+                setCentre(cameraCentre);
+            }
+            repaint();
+        }
+    }
+
+    /**
+     * Sets the recorded run to draw over the level. Its frame is moved on by whoever plays it, on the event dispatch thread.
+     *
+     * @param ghost the ghost, or null to stop drawing one
+     */
+    public void setGhost(GhostReplay ghost) {
+        this.ghost = ghost;
+        ghostStartSteps = level.getSimulation().getSteps();
+        repaint();
+    }
+
+    public GhostReplay getGhost() {
+        return ghost;
+    }
+
+    /**
+     * Paints the background, the sprites of the latest snapshot and the foreground, without touching the world.
+     * The engine's own drawing of the world is not used, as it reads every body while the simulation may be stepping.
+     *
+     * @param g the graphics context to draw on
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            paintBackground(g2);
+            drawSprites(g2);
+            paintForeground(g2);
+        } finally {
+            g2.dispose();
+        }
     }
 
     /**
@@ -57,33 +196,168 @@ public class GameView extends UserView implements StepListener{
      */
     public void setBackgroundImage(GameLevel level) {
         if (level instanceof Level1) {
-            background = new ImageIcon("data/background1.jpg").getImage();
+            background = AssetCache.getImage("data/background1.jpg");
         } else if (level instanceof Level2) {
-            background = new ImageIcon("data/background2.jpg").getImage();
+            background = AssetCache.getImage("data/background2.jpg");
         } else if (level instanceof Level3) {
-            background = new ImageIcon("data/background3.jpg").getImage();
+            background = AssetCache.getImage("data/background3.jpg");
         }
+        backgroundChanged = true;
     }
 
     /**
-     * Paints the background image for the level.
+     * Paints the background image for the level, copying it from the cached background.
      *
      * @param g the graphics context to draw on
      */
     @Override
     protected void paintBackground(Graphics2D g) {
-    g.drawImage(background, 0, 0, this);
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        GraphicsConfiguration config = g.getDeviceConfiguration();
+        do {
+            int status = backgroundCache == null ? VolatileImage.IMAGE_INCOMPATIBLE : backgroundCache.validate(config);
+
+            //make a new cache if there is none, the view has been resized or it no longer suits the screen
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE || backgroundCache.getWidth() != width || backgroundCache.getHeight() != height) {
+                if (backgroundCache != null) {
+                    backgroundCache.flush();
+                }
+                backgroundCache = config.createCompatibleVolatileImage(width, height);
+                backgroundChanged = true;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                //the video memory was lost, so its contents need drawing again
+                backgroundChanged = true;
+            }
+
+            if (backgroundChanged) {
+                renderBackground(width, height);
+            }
+            g.drawImage(backgroundCache, 0, 0, this);
+        } while (backgroundCache.contentsLost());
+    }
+
+    /**
+     * Draws the sprites of the latest snapshot, each centred on its body and turned with it, at its height in metres.
+     * The area the view shows is passed on to the simulation, so the next snapshot holds the sprites within it;
+     * if the level is not stepping, a snapshot is taken straight away.
+     */
+    private void drawSprites(Graphics2D g) {
+        float scale = getScale();
+        Vec2 centre = getViewCentre();
+        float halfWidth = getWidth() / 2f / scale;
+        float halfHeight = getHeight() / 2f / scale;
+
+        //the area is widened to whole cells of the sprite index, so it only changes when the view crosses a cell edge
+        SimulationLoop simulation = level.getSimulation();
+        simulation.setArea(cellFloor(centre.x - halfWidth - SPRITE_MARGIN), cellFloor(centre.y - halfHeight - SPRITE_MARGIN),
+                cellCeil(centre.x + halfWidth + SPRITE_MARGIN), cellCeil(centre.y + halfHeight + SPRITE_MARGIN));
+        if (!level.isRunning() || simulation.getSnapshot() == null) {
+            simulation.capture();
+        }
+        SimulationLoop.Snapshot snapshot = simulation.getSnapshot();
+        float alpha = snapshot.alpha(System.nanoTime());
+
+        AffineTransform original = g.getTransform();
+        int drawn = snapshot.getSpriteCount();
+        for (int i = 0; i < drawn; i++) {
+            SpriteAtlas.Region region = snapshot.getRegion(i);
+            float height = snapshot.getHeight(i) * scale;
+            float width = height * region.getWidth() / region.getHeight();
+            Point2D.Float position = toView(snapshot.getPosition(i, alpha, spritePosition), scale);
+
+            g.translate(position.x, position.y);
+            float angle = snapshot.getAngle(i, alpha);
+            if (angle != 0) {
+                //the view's y axis points down, so the body's angle is turned the other way
+                g.rotate(-angle);
+            }
+            region.draw(g, Math.round(-width / 2), Math.round(-height / 2), Math.round(width), Math.round(height), this);
+            g.setTransform(original);
+        }
+
+        drawnSprites = drawn;
+        culledSprites = snapshot.getIndexedCount() - drawn;
     }
 
     /**
-     * Updates the view to follow the chicken smoothly as the level steps.
+     * Finds where a point of the world is shown in the view, the same as worldToView, into a point reused for every call.
+     */
+    private Point2D.Float toView(Vec2 world, float scale) {
+        Vec2 centre = getViewCentre();
+        spriteCentre.setLocation(getWidth() / 2f + (world.x - centre.x) * scale, getHeight() / 2f - (world.y - centre.y) * scale);
+        return spriteCentre;
+    }
+
+    private Vec2 getViewCentre() {
+        if (viewCentre == null) {
+            viewCentre = new Vec2(getCentre());
+        }
+        return viewCentre;
+    }
+
+    /**
+     * Keeps the centre of the view as well as passing it on to the engine.
      *
-     * @param stepEvent the step event from the world
+     * @param centre the point of the world to show at the centre of the view
      */
     @Override
-    public void preStep(StepEvent stepEvent) {
+    public void setCentre(Vec2 centre) {
+        super.setCentre(centre);
+        //the engine may set the centre while the view is being constructed, before the first frame reads it
+        if (viewCentre == null) {
+            viewCentre = new Vec2(centre);
+        } else {
+            viewCentre.set(centre);
+        }
+    }
+
+    private static float cellFloor(float coordinate) {
+        return (float) Math.floor(coordinate / SpriteIndex.CELL_SIZE) * SpriteIndex.CELL_SIZE;
+    }
+
+    private static float cellCeil(float coordinate) {
+        return (float) Math.ceil(coordinate / SpriteIndex.CELL_SIZE) * SpriteIndex.CELL_SIZE;
+    }
+
+    public int getDrawnSprites() {
+        return drawnSprites;
+    }
+
+    public int getCulledSprites() {
+        return culledSprites;
+    }
+
+    /**
+     * Draws the level's background into the cache, at the same place and size as it is shown in the view.
+     */
+    private void renderBackground(int width, int height) {
+        Graphics2D cache = backgroundCache.createGraphics();
+        try {
+            cache.setColor(getBackground());
+            cache.fillRect(0, 0, width, height);
+            cache.drawImage(background, 0, 0, this);
+        } finally {
+            cache.dispose();
+        }
+        backgroundChanged = false;
+    }
+
+    /**
+     * Moves the camera to follow the chicken smoothly, using where the chicken is between its last two physics steps.
+     */
+    private void updateCamera() {
         //make the view follow the chicken as it falls downwards and moves
-        Vec2 currentPosition = level.getChicken().getPosition();
+        SimulationLoop.Snapshot snapshot = level.getSimulation().getSnapshot();
+        if (snapshot == null) {
+            level.getSimulation().capture();
+            snapshot = level.getSimulation().getSnapshot();
+        }
+        Vec2 currentPosition = snapshot.interpolate(System.nanoTime(), chickenPosition);
         float deltaX = (targetPosition.x - currentPosition.x) * (0.2f);
         float deltaY = (targetPosition.y - currentPosition.y) * (0.001f);
 
@@ -98,7 +372,8 @@ public class GameView extends UserView implements StepListener{
             }
         }
 
-        setCentre(new Vec2(currentPosition.x + deltaX, cameraY));
+        cameraCentre.set(currentPosition.x + deltaX, cameraY);
+        setCentre(cameraCentre);
     }
 
     /**
@@ -110,14 +385,7 @@ public class GameView extends UserView implements StepListener{
     public void setWorld(World w) {
         super.setWorld(w);
         this.level = (GameLevel)w;
-    }
-
-    /**
-     * Not used but required by StepListener.
-     */
-    @Override
-    public void postStep(StepEvent stepEvent) {
-
+        ghostStartSteps = level.getSimulation().getSteps();
     }
 
     /**
@@ -127,101 +395,44 @@ public class GameView extends UserView implements StepListener{
 
     /**
      * Paints UI elements on top of the game, such as egg count, timer, and game over messages.
+     * These are drawn from the HUD's cached image, which is only rendered again when they change.
      *
      * @param g the graphics context to draw on
      */
     @Override
     protected void paintForeground(Graphics2D g) {
-        //print number of eggs collected by chicken in the screen
-        int credits = level.getChicken().getCredits();
-
-        if (!(level instanceof Level3 && level.isComplete())) {
-
-            if (level instanceof Level1 || level instanceof Level3) {
-                g.setColor(Color.BLUE);
-            } else if (level instanceof Level2) {
-                g.setColor(Color.BLACK);
-            }
-            g.setFont(STATUS_FONT);
-            g.drawString("Eggs collected: " + credits, 50, 50);
-        }
-
-        //print game over message
-        if ((level instanceof Level1 || level instanceof Level3) && level.isGameOver()) {
-            g.setColor(Color.RED);
-            g.setFont(STATUS_FONT);
-            //calculate center position of the screen
-            String gameOverText = "Oh no! You're cooked! Game Over!";
-            FontMetrics metrics = g.getFontMetrics(STATUS_FONT);
-            int textWidth = metrics.stringWidth(gameOverText);
-            int screenCenterX = getWidth() / 2;
-
-            //position the text in the center
-            int x = screenCenterX - (textWidth / 2);
-
-            g.drawString(gameOverText, x, 80);
-        } else if (level instanceof Level2 && level.isGameOver() && ((Level2) level).getTimeLeft() != 0) {
-            g.setColor(Color.RED);
-            g.setFont(STATUS_FONT);
-            //calculate center position of the screen
-            String gameOverText = "Oh no! You're cooked! Game Over!";
-            FontMetrics metrics = g.getFontMetrics(STATUS_FONT);
-            int textWidth = metrics.stringWidth(gameOverText);
-            int screenCenterX = getWidth() / 2;
-
-            //position the text in the center
-            int x = screenCenterX - (textWidth / 2);
-
-            g.drawString(gameOverText, x, 80);
-        } else if (level instanceof Level3 && level.isComplete()) {
-            g.setColor(new Color(61, 22, 255, 229));
-            g.setFont(new Font("Monospaced", Font.PLAIN, 25));
-            //calculate center position of the screen
-            String gameOverText = "Golden egg collected! You won!";
-            FontMetrics metrics = g.getFontMetrics(new Font("Monospaced", Font.PLAIN, 25));
-            int textWidth = metrics.stringWidth(gameOverText);
-            int screenCenterX = getWidth() / 2;
-
-            //position the text in the center
-            int x = screenCenterX - (textWidth / 2);
-
-            g.drawString(gameOverText, x, 95);
+        if (ghost != null && ghost.getFrame() >= 0 && (!level.isRunning() || ghost.getLevel() == HeadlessRunner.levelNumber(level))) {
+            drawGhost(g);
         }
+        hud.paint(g, level, getWidth());
+    }
 
-        //for level2
-        if (level instanceof Level2) {
-            Level2 level2 = (Level2)level;
-            int timeLeft = level2.getTimeLeft();
-            if (timeLeft < 10) {
-                g.setColor(Color.RED);
-            } else {
-                g.setColor(Color.BLACK);
+    /**
+     * Draws every body of the ghost's current frame, see-through and turned with the body, at the size of the body's own image.
+     */
+    private void drawGhost(Graphics2D g) {
+        float scale = getScale();
+        AffineTransform original = g.getTransform();
+        Composite composite = g.getComposite();
+        g.setComposite(GHOST_COMPOSITE);
+        for (int id = 0; id < ghost.getBodyCount(); id++) {
+            if (!ghost.isPresent(id)) {
+                continue;
             }
-            g.setFont(STATUS_FONT);
-            if (timeLeft == 0) {
-
-                //calculate center position of the screen
-                String gameOverText = "Time's up! The nest burnt down! Game Over!";
-                FontMetrics metrics = g.getFontMetrics(STATUS_FONT);
-                int textWidth = metrics.stringWidth(gameOverText);
-                int screenCenterX = getWidth() / 2;
-
-                //position the text in the center
-                int x = screenCenterX - (textWidth / 2);
-
-                g.drawString(gameOverText, x, 80);
-            } else if (timeLeft > 0 && !(level.isGameOver())) {
-                //calculate center position of the screen
-                String time = "00:00";
-                FontMetrics metrics = g.getFontMetrics(STATUS_FONT);
-                int textWidth = metrics.stringWidth(time);
-                int screenCenterX = getWidth() / 2;
-
-                //position the text in the center
-                int x = screenCenterX - (textWidth / 2);
-
-                g.drawString(level2.getMinsLeft() + ":" + level2.getSecsLefts(), x, 80);
+            SpriteAtlas.Region region = GhostReplay.regionOf(ghost.getType(id));
+            if (region == null) {
+                continue;
             }
+            float height = GhostReplay.heightOf(ghost.getType(id)) * scale;
+            float width = height * region.getWidth() / region.getHeight();
+            spritePosition.set(ghost.getX(id), ghost.getY(id));
+            Point2D.Float position = toView(spritePosition, scale);
+
+            g.translate(position.x, position.y);
+            g.rotate(-ghost.getAngle(id));
+            region.draw(g, Math.round(-width / 2), Math.round(-height / 2), Math.round(width), Math.round(height), this);
+            g.setTransform(original);
         }
+        g.setComposite(composite);
     }
 }
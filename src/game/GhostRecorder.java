@@ -0,0 +1,244 @@
+/**
+ * Records a run of a level into a ghost file, one frame after every physics step, in the format read by GhostReplay.
+ * <p>
+ * Every moving body of the level is recorded; still bodies never move, and are already there when the ghost is played over the level.
+ * Bodies are given an id when they are first seen. Pickups parked in the level's PickupPool are recorded as gone,
+ * and as appearing again when they are reused.
+ * <p>
+ * For each body the recorder keeps the values the replay will hold after reading the frames so far, and stores each
+ * change from those rather than from the body's last exact values, so the rounding never drifts between keyframes.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+import org.jbox2d.common.Vec2;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public class GhostRecorder implements StepListener {
+    private final GameLevel level;
+    private final ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+    private final Map<Body, Integer> ids = new IdentityHashMap<>();
+    private int nextId = 0;
+    private int frames = 0;
+
+    //the values the replay holds for each body id, and whether it is in the current frame
+    private boolean[] live = new boolean[64];
+    private int[] seen = new int[64];
+    private float[] x = new float[64];
+    private float[] y = new float[64];
+    private float[] angle = new float[64];
+    private float[] vx = new float[64];
+    private float[] vy = new float[64];
+
+    //the parts of a frame, written separately as the number of entries in each is only known at the end
+    private final ByteArrayOutputStream added = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream removed = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream moved = new ByteArrayOutputStream();
+    private final DataOutputStream addedOut = new DataOutputStream(added);
+    private final ByteArrayOutputStream frameBytes = new ByteArrayOutputStream();
+
+    /**
+     * Starts recording the given level, from its next step.
+     *
+     * @param level the level to record
+     */
+    public GhostRecorder(GameLevel level) {
+        this.level = level;
+        file.writeBytes(GhostReplay.MAGIC);
+        file.write(GhostReplay.VERSION);
+        file.write(HeadlessRunner.levelNumber(level));
+        file.write(GhostReplay.KEYFRAME_STEPS >> 8);
+        file.write(GhostReplay.KEYFRAME_STEPS & 0xFF);
+        level.addStepListener(this);
+    }
+
+    @Override
+    public void preStep(StepEvent stepEvent) {
+    }
+
+    /**
+     * Records the bodies as they are after the step.
+     *
+     * @param stepEvent the step event
+     */
+    @Override
+    public void postStep(StepEvent stepEvent) {
+        try {
+            recordFrame();
+        } catch (IOException e) {
+            //writing to memory cannot fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops recording the level.
+     */
+    public void detach() {
+        level.removeStepListener(this);
+    }
+
+    public int getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Returns the ghost recorded so far as the bytes of a ghost file.
+     *
+     * @return the bytes
+     */
+    public byte[] toByteArray() {
+        return file.toByteArray();
+    }
+
+    /**
+     * Saves the ghost recorded so far.
+     *
+     * @param fileName the path of the ghost file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(String fileName) throws IOException {
+        try (OutputStream out = new FileOutputStream(fileName)) {
+            file.writeTo(out);
+        }
+    }
+
+    private void recordFrame() throws IOException {
+        boolean keyframe = frames % GhostReplay.KEYFRAME_STEPS == 0;
+        int frame = frames + 1;
+        added.reset();
+        removed.reset();
+        moved.reset();
+        int addedCount = 0;
+        int removedCount = 0;
+        int movedCount = 0;
+
+        for (DynamicBody body : level.getDynamicBodies()) {
+            if (body instanceof Sprite && !((Sprite) body).isShown()) {
+                continue;
+            }
+            int id = idOf(body);
+            seen[id] = frame;
+            Vec2 position = body.getPosition();
+            Vec2 velocity = body.getLinearVelocity();
+
+            if (keyframe || !live[id]) {
+                //store the body in full
+                writeVarint(added, id);
+                addedOut.writeByte(LevelLoader.typeOf(body));
+                addedOut.writeFloat(position.x);
+                addedOut.writeFloat(position.y);
+                addedOut.writeFloat(body.getAngle());
+                addedOut.writeFloat(velocity.x);
+                addedOut.writeFloat(velocity.y);
+                x[id] = position.x;
+                y[id] = position.y;
+                angle[id] = body.getAngle();
+                vx[id] = velocity.x;
+                vy[id] = velocity.y;
+                live[id] = true;
+                addedCount++;
+                continue;
+            }
+
+            //store only the rounded changes, and only if the body moved
+            int dx = Math.round((position.x - x[id]) * GhostReplay.POSITION_SCALE);
+            int dy = Math.round((position.y - y[id]) * GhostReplay.POSITION_SCALE);
+            int da = Math.round((body.getAngle() - angle[id]) * GhostReplay.ANGLE_SCALE);
+            int dvx = Math.round((velocity.x - vx[id]) * GhostReplay.VELOCITY_SCALE);
+            int dvy = Math.round((velocity.y - vy[id]) * GhostReplay.VELOCITY_SCALE);
+            if ((dx | dy | da | dvx | dvy) == 0) {
+                continue;
+            }
+            writeVarint(moved, id);
+            writeVarint(moved, zigzag(dx));
+            writeVarint(moved, zigzag(dy));
+            writeVarint(moved, zigzag(da));
+            writeVarint(moved, zigzag(dvx));
+            writeVarint(moved, zigzag(dvy));
+            x[id] += dx / GhostReplay.POSITION_SCALE;
+            y[id] += dy / GhostReplay.POSITION_SCALE;
+            angle[id] += da / GhostReplay.ANGLE_SCALE;
+            vx[id] += dvx / GhostReplay.VELOCITY_SCALE;
+            vy[id] += dvy / GhostReplay.VELOCITY_SCALE;
+            movedCount++;
+        }
+
+        //bodies not seen in this frame have been destroyed or parked
+        for (int id = 0; id < nextId; id++) {
+            if (live[id] && seen[id] != frame) {
+                live[id] = false;
+                if (!keyframe) {
+                    writeVarint(removed, id);
+                    removedCount++;
+                }
+            }
+        }
+
+        frameBytes.reset();
+        if (keyframe) {
+            frameBytes.write(GhostReplay.KEYFRAME);
+            writeVarint(frameBytes, addedCount);
+            added.writeTo(frameBytes);
+        } else {
+            frameBytes.write(GhostReplay.DELTA);
+            writeVarint(frameBytes, addedCount);
+            added.writeTo(frameBytes);
+            writeVarint(frameBytes, removedCount);
+            removed.writeTo(frameBytes);
+            writeVarint(frameBytes, movedCount);
+            moved.writeTo(frameBytes);
+        }
+        writeVarint(file, frameBytes.size());
+        frameBytes.writeTo(file);
+        frames++;
+    }
+
+    /**
+     * Finds the id of a body, giving it the next id if it has not been seen before.
+     */
+    private int idOf(Body body) {
+        Integer id = ids.get(body);
+        if (id != null) {
+            return id;
+        }
+        id = nextId++;
+        ids.put(body, id);
+        if (id >= live.length) {
+            int size = live.length * 2;
+            live = Arrays.copyOf(live, size);
+            seen = Arrays.copyOf(seen, size);
+            x = Arrays.copyOf(x, size);
+            y = Arrays.copyOf(y, size);
+            angle = Arrays.copyOf(angle, size);
+            vx = Arrays.copyOf(vx, size);
+            vy = Arrays.copyOf(vy, size);
+        }
+        return id;
+    }
+
+    /**
+     * Folds the sign into the lowest bit, so small changes either way take few bytes.
+     */
+    private static long zigzag(int value) {
+        return ((long) value << 1) ^ (value >> 31);
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
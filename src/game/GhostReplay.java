@@ -0,0 +1,327 @@
+/**
+ * A recorded run of a level, played back as a ghost over the level in a GameView.
+ * <p>
+ * A ghost file holds the position, angle and velocity of every moving body in the level at every physics step.
+ * Every KEYFRAME_STEPS steps there is a keyframe holding every body in full. The frames in between only hold the bodies
+ * that moved, each as small whole-number changes in units of 1/POSITION_SCALE metres, 1/ANGLE_SCALE radians and
+ * 1/VELOCITY_SCALE metres per second, plus the bodies that appeared or went away. The changes are worked out by the
+ * GhostRecorder from the rounded values the replay will hold, so rounding errors never add up between keyframes.
+ * <p>
+ * The file starts with the bytes {@code HCGH}, a version byte, the level number and the number of steps between keyframes.
+ * Each frame then starts with its length, so the start of every frame is found once when the file is loaded.
+ * Seeking to any step then only replays the frames since the keyframe before it, however long the run was.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import org.jbox2d.common.Vec2;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class GhostReplay {
+    static final byte[] MAGIC = {'H', 'C', 'G', 'H'};
+    static final int VERSION = 1;
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    /**
+     * Number of steps between keyframes (one second).
+     */
+    public static final int KEYFRAME_STEPS = SimulationLoop.STEPS_PER_SECOND;
+
+    /**
+     * Units that changes are stored in: positions to 1/256 of a metre, angles to 1/1024 of a radian
+     * and velocities to 1/64 of a metre per second.
+     */
+    static final float POSITION_SCALE = 256f;
+    static final float ANGLE_SCALE = 1024f;
+    static final float VELOCITY_SCALE = 64f;
+
+    private final ByteBuffer data;
+    private final int level;
+    private final int keyframeSteps;
+    private final int[] frameOffsets;
+
+    /**
+     * The frame the bodies are at, or -1 before the first frame has been read.
+     */
+    private int frame = -1;
+
+    //the bodies at the current frame, by their id in the file
+    private boolean[] present = new boolean[64];
+    private byte[] types = new byte[64];
+    private float[] x = new float[64];
+    private float[] y = new float[64];
+    private float[] angle = new float[64];
+    private float[] vx = new float[64];
+    private float[] vy = new float[64];
+    private int bodies = 0;
+
+    /**
+     * Reads a ghost from the bytes of a ghost file.
+     *
+     * @param bytes the bytes of the file
+     * @throws IOException if the bytes are not a ghost file
+     */
+    public GhostReplay(byte[] bytes) throws IOException {
+        data = ByteBuffer.wrap(bytes);
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            data.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("not a ghost file");
+            }
+            int version = data.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("unknown ghost file version " + version);
+            }
+            level = data.get() & 0xFF;
+            keyframeSteps = data.getShort() & 0xFFFF;
+
+            //find the start of every frame
+            int[] offsets = new int[1024];
+            int count = 0;
+            while (data.hasRemaining()) {
+                int length = (int) readVarint();
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = data.position();
+                data.position(data.position() + length);
+            }
+            frameOffsets = Arrays.copyOf(offsets, count);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("ghost file is cut short", e);
+        }
+    }
+
+    /**
+     * Reads a ghost from a file.
+     *
+     * @param fileName the path of the ghost file
+     * @return the ghost, before its first frame
+     * @throws IOException if the file cannot be read or is not a ghost file
+     */
+    public static GhostReplay load(String fileName) throws IOException {
+        return new GhostReplay(Files.readAllBytes(Paths.get(fileName)));
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getFrame() {
+        return frame;
+    }
+
+    public int getFrameCount() {
+        return frameOffsets.length;
+    }
+
+    /**
+     * Moves the bodies to where they were at the given frame. Moving on by one frame reads only that frame;
+     * anything else starts from the keyframe at or before the given frame.
+     *
+     * @param target the frame, which is kept within the frames of the ghost
+     */
+    public void seek(int target) {
+        target = Math.max(0, Math.min(target, frameOffsets.length - 1));
+        if (target == frame || frameOffsets.length == 0) {
+            return;
+        }
+
+        int from = target == frame + 1 ? target : target - target % keyframeSteps;
+        for (int i = from; i <= target; i++) {
+            readFrame(i);
+        }
+        frame = target;
+    }
+
+    /**
+     * Returns one more than the highest body id, so ids from 0 up to this can be looked at.
+     *
+     * @return the number of body ids
+     */
+    public int getBodyCount() {
+        return bodies;
+    }
+
+    public boolean isPresent(int id) {
+        return present[id];
+    }
+
+    public byte getType(int id) {
+        return types[id];
+    }
+
+    public float getX(int id) {
+        return x[id];
+    }
+
+    public float getY(int id) {
+        return y[id];
+    }
+
+    public float getAngle(int id) {
+        return angle[id];
+    }
+
+    public float getVelocityX(int id) {
+        return vx[id];
+    }
+
+    public float getVelocityY(int id) {
+        return vy[id];
+    }
+
+    /**
+     * Finds where the ghost chicken is at the current frame.
+     *
+     * @param out the vector to store the position in
+     * @return out, or null if there is no chicken in the frame
+     */
+    public Vec2 getChickenPosition(Vec2 out) {
+        for (int id = 0; id < bodies; id++) {
+            if (present[id] && types[id] == LevelLoader.CHICKEN) {
+                out.set(x[id], y[id]);
+                return out;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the region to draw a ghost body of the given type with, the same as the body's own.
+     *
+     * @param type the type of the body, from LevelLoader, or 0 for a water projectile
+     * @return the region, or null if the image could not be read
+     */
+    static SpriteAtlas.Region regionOf(byte type) {
+        switch (type) {
+            case LevelLoader.CHICKEN:
+                return Chicken.image;
+            case LevelLoader.EGG:
+                return Egg.image;
+            case LevelLoader.QUEEN_EGG:
+                return QueenEgg.image;
+            case LevelLoader.MOVING_FIRE:
+                return MovingFire.image;
+            case LevelLoader.LAST_MOVING_FIRE:
+                return LastMovingFire.image;
+            case LevelLoader.GOLD_EGG:
+                return GoldEgg.image;
+            default:
+                return WaterProjectile.image;
+        }
+    }
+
+    /**
+     * Returns the height to draw a ghost body of the given type at, the same as the body's own image.
+     *
+     * @param type the type of the body, from LevelLoader, or 0 for a water projectile
+     * @return the height, in metres
+     */
+    static float heightOf(byte type) {
+        switch (type) {
+            case LevelLoader.CHICKEN:
+                return Chicken.IMAGE_HEIGHT;
+            case LevelLoader.EGG:
+                return Egg.IMAGE_HEIGHT;
+            case LevelLoader.QUEEN_EGG:
+                return QueenEgg.IMAGE_HEIGHT;
+            case LevelLoader.MOVING_FIRE:
+                return MovingFire.IMAGE_HEIGHT;
+            case LevelLoader.LAST_MOVING_FIRE:
+                return LastMovingFire.IMAGE_HEIGHT;
+            case LevelLoader.GOLD_EGG:
+                return GoldEgg.IMAGE_HEIGHT;
+            default:
+                return WaterProjectile.IMAGE_HEIGHT;
+        }
+    }
+
+    /**
+     * Applies one frame to the bodies.
+     */
+    private void readFrame(int index) {
+        data.position(frameOffsets[index]);
+        byte kind = data.get();
+        if (kind == KEYFRAME) {
+            Arrays.fill(present, false);
+            int count = (int) readVarint();
+            for (int i = 0; i < count; i++) {
+                readBody();
+            }
+        } else {
+            int added = (int) readVarint();
+            for (int i = 0; i < added; i++) {
+                readBody();
+            }
+            int removed = (int) readVarint();
+            for (int i = 0; i < removed; i++) {
+                present[(int) readVarint()] = false;
+            }
+            int moved = (int) readVarint();
+            for (int i = 0; i < moved; i++) {
+                int id = (int) readVarint();
+                x[id] += readZigzag() / POSITION_SCALE;
+                y[id] += readZigzag() / POSITION_SCALE;
+                angle[id] += readZigzag() / ANGLE_SCALE;
+                vx[id] += readZigzag() / VELOCITY_SCALE;
+                vy[id] += readZigzag() / VELOCITY_SCALE;
+            }
+        }
+    }
+
+    /**
+     * Reads a body stored in full.
+     */
+    private void readBody() {
+        int id = (int) readVarint();
+        if (id >= present.length) {
+            int size = Math.max(id + 1, present.length * 2);
+            present = Arrays.copyOf(present, size);
+            types = Arrays.copyOf(types, size);
+            x = Arrays.copyOf(x, size);
+            y = Arrays.copyOf(y, size);
+            angle = Arrays.copyOf(angle, size);
+            vx = Arrays.copyOf(vx, size);
+            vy = Arrays.copyOf(vy, size);
+        }
+        bodies = Math.max(bodies, id + 1);
+        present[id] = true;
+        types[id] = data.get();
+        x[id] = data.getFloat();
+        y[id] = data.getFloat();
+        angle[id] = data.getFloat();
+        vx[id] = data.getFloat();
+        vy[id] = data.getFloat();
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        int next;
+        do {
+            next = data.get() & 0xFF;
+            value |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        return value;
+    }
+
+    private long readZigzag() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Plays a ghost file in a window, over a newly built copy of its level that is not run.
+ * <p>
+ * The ghost plays at the speed it was recorded. Any point of the run can be jumped to without simulating the steps
+ * before it, as GhostReplay only reads from the keyframe before that point:
+ * <ul>
+ *     <li>Space: pause or play</li>
+ *     <li>Left and Right Arrows: jump back or forward five seconds</li>
+ *     <li>Home and End: jump to the start or the end</li>
+ * </ul>
+ * It can be run from the command line:
+ * <pre>
+ * java game.GhostViewer [ghost file]
+ * </pre>
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.swing.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+
+public class GhostViewer {
+    /**
+     * Number of frames jumped by the arrow keys.
+     */
+    private static final int SEEK_FRAMES = SimulationLoop.STEPS_PER_SECOND * 5;
+
+    private final GhostReplay ghost;
+    private final GameView view;
+    private final Timer timer;
+
+    /**
+     * Builds the ghost's level, shows it in a window and starts playing the ghost.
+     *
+     * @param ghost the ghost to play
+     */
+    public GhostViewer(GhostReplay ghost) {
+        this.ghost = ghost;
+        Game game = Game.createHeadless();
+        GameLevel level = HeadlessRunner.createLevel(Math.max(1, ghost.getLevel()), game);
+        game.setHeadlessLevel(level);
+
+        view = new GameView(level, 600, 600);
+        view.setGhost(ghost);
+        ghost.seek(0);
+
+        JFrame frame = new JFrame("Happy Chicken ghost");
+        frame.add(view);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setLocationByPlatform(true);
+        frame.setResizable(false);
+        frame.pack();
+        frame.setVisible(true);
+
+        view.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                handleKey(e.getKeyCode());
+            }
+        });
+        view.requestFocusInWindow();
+
+        //move on one frame per physics step
+        timer = new Timer(1000 / SimulationLoop.STEPS_PER_SECOND, e -> ghost.seek(ghost.getFrame() + 1));
+        timer.start();
+    }
+
+    /**
+     * Pauses, plays or jumps through the ghost.
+     */
+    private void handleKey(int code) {
+        if (code == KeyEvent.VK_SPACE) {
+            if (timer.isRunning()) {
+                timer.stop();
+            } else {
+                timer.start();
+            }
+        } else if (code == KeyEvent.VK_LEFT) {
+            ghost.seek(ghost.getFrame() - SEEK_FRAMES);
+        } else if (code == KeyEvent.VK_RIGHT) {
+            ghost.seek(ghost.getFrame() + SEEK_FRAMES);
+        } else if (code == KeyEvent.VK_HOME) {
+            ghost.seek(0);
+        } else if (code == KeyEvent.VK_END) {
+            ghost.seek(ghost.getFrameCount() - 1);
+        }
+        view.repaint();
+    }
+
+    /**
+     * Plays a ghost file.
+     *
+     * @param args the ghost file (default data/ghost.bin)
+     */
+    public static void main(String[] args) {
+        String fileName = args.length > 0 ? args[0] : "data/ghost.bin";
+        GhostReplay ghost;
+        try {
+            ghost = GhostReplay.load(fileName);
+        } catch (IOException e) {
+            System.out.println("Error loading ghost: " + e);
+            return;
+        }
+        SwingUtilities.invokeLater(() -> new GhostViewer(ghost));
+    }
+}
@@ -4,8 +4,8 @@
  * The golden egg is a static body that appears at the end of Level3 when the player successfully extinguishes the final fire.
  * Collecting this golden egg signifies that the player has completed and won the game.
  * <p>
- * Only one golden egg can be collected in a game session.
- * This is tracked using a static flag.
+ * Only one golden egg can be collected in a run of Level3.
+ * This is tracked in the LevelState of its level.
  * <p>
  * The golden egg is represented by a box shape and a custom image.
  * <p>
@@ -18,11 +18,12 @@ package game;
 
 import city.cs.engine.*;
 
-public class GoldEgg extends StaticBody{
+public class GoldEgg extends StaticBody implements Sprite {
 
     private static final Shape eggShape = new BoxShape(2.5f,4f);
 
-    private static final BodyImage image = new BodyImage("data/goldEgg.png", 8f);
+    static final SpriteAtlas.Region image = SpriteAtlas.region("data/goldEgg.png");
+    static final float IMAGE_HEIGHT = 8f;
 
     /**
      * Constructs a new GoldEgg in the specified world.
@@ -31,15 +32,16 @@ public class GoldEgg extends StaticBody{
      */
     public GoldEgg(World world) {
         super(world, eggShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
     }
 
-    private static boolean goldEggCollected = false;
-
-    public static void setGoldEggCollected() {
-        goldEggCollected = true;
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
     }
-    public static boolean isGoldEggCollected() {
-        return goldEggCollected;
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
     }
 }
@@ -14,10 +14,11 @@ package game;
 
 import city.cs.engine.*;
 
-public class Grass extends StaticBody {
+public class Grass extends StaticBody implements Sprite {
     private static final Shape grassShape = new BoxShape(3,1.5f);
 
-    private static final BodyImage image = new BodyImage("data/grass.png", 4f);
+    private static final SpriteAtlas.Region image = SpriteAtlas.region("data/grass.png");
+    private static final float IMAGE_HEIGHT = 4f;
 
     /**
      * Constructs a new Grass in the specified world.
@@ -26,6 +27,16 @@ public class Grass extends StaticBody {
      */
     public Grass(World world) {
         super(world, grassShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
+    }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
     }
 }
@@ -0,0 +1,232 @@
+/**
+ * Moves every moving hazard in a level in a single pass before each step.
+ * <p>
+ * Rather than each MovingFire and LastMovingFire listening for steps and moving itself, they are registered here once.
+ * Their range, speed, direction and how far they have moved are kept in plain float arrays and updated together,
+ * without creating any objects during the step, so the step time stays flat as more moving hazards are added.
+ * <p>
+ * Hazards are moved by setting their velocity for the step rather than their position, so their position never has to be read
+ * and anything else that moves the body, such as the chicken pushing it, is kept. Hazards are not pulled down by gravity,
+ * so they keep to the height they are placed at as they move.
+ * <p>
+ * There are two kinds of motion:
+ * <ul>
+ *     <li>patrol: the hazard moves back and forth horizontally within a range either side of where it was placed (MovingFire).</li>
+ *     <li>drift: the hazard moves steadily to the left, but only once the level's water bucket has been collected (LastMovingFire).</li>
+ * </ul>
+ * Hazards are removed automatically when their body is destroyed.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+import org.jbox2d.common.Vec2;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class HazardMotion implements StepListener {
+    private static final byte PATROL = 0;
+    private static final byte DRIFT = 1;
+
+    private DynamicBody[] bodies = new DynamicBody[8];
+    private byte[] kinds = new byte[8];
+    private float[] range = new float[8];
+    private float[] speed = new float[8];
+    private float[] direction = new float[8];
+
+    /**
+     * How far each patrolling hazard has moved from where it was placed, to the right.
+     */
+    private float[] offset = new float[8];
+
+    private int count = 0;
+
+    /**
+     * The state of the level the hazards are in, which says whether drifting hazards should move yet.
+     */
+    private final LevelState state;
+
+    /**
+     * Velocity passed to the bodies, reused so that no Vec2 is created during the step.
+     */
+    private final Vec2 scratch = new Vec2();
+
+    /**
+     * Constructs an empty set of hazards for a level.
+     *
+     * @param state the state of the level the hazards are in
+     */
+    public HazardMotion(LevelState state) {
+        this.state = state;
+    }
+
+    /**
+     * Registers a hazard that moves back and forth horizontally within a range either side of where it is placed.
+     *
+     * @param body the hazard
+     * @param range the maximum distance it moves from its starting position before turning around
+     * @param speed the distance it moves each step
+     */
+    public void addPatrol(DynamicBody body, float range, float speed) {
+        add(body, PATROL, range, speed);
+    }
+
+    /**
+     * Registers a hazard that moves steadily to the left once the water bucket has been collected.
+     *
+     * @param body the hazard
+     * @param speed the distance it moves each step
+     */
+    public void addDrift(DynamicBody body, float speed) {
+        add(body, DRIFT, 0, speed);
+    }
+
+    private void add(DynamicBody body, byte kind, float bodyRange, float bodySpeed) {
+        if (count == bodies.length) {
+            grow();
+        }
+        bodies[count] = body;
+        kinds[count] = kind;
+        range[count] = bodyRange;
+        speed[count] = bodySpeed;
+        direction[count] = 1;
+        offset[count] = 0;
+        count++;
+
+        body.setGravityScale(0);
+
+        //stop moving it once it is destroyed
+        body.addDestructionListener(e -> remove(body));
+    }
+
+    private void grow() {
+        int size = bodies.length * 2;
+        bodies = Arrays.copyOf(bodies, size);
+        kinds = Arrays.copyOf(kinds, size);
+        range = Arrays.copyOf(range, size);
+        speed = Arrays.copyOf(speed, size);
+        direction = Arrays.copyOf(direction, size);
+        offset = Arrays.copyOf(offset, size);
+    }
+
+    /**
+     * Stops moving the given hazard.
+     *
+     * @param body the hazard to remove
+     */
+    public void remove(Body body) {
+        for (int i = 0; i < count; i++) {
+            if (bodies[i] == body) {
+                //move the last hazard into the gap
+                int last = count - 1;
+                bodies[i] = bodies[last];
+                kinds[i] = kinds[last];
+                range[i] = range[last];
+                speed[i] = speed[last];
+                direction[i] = direction[last];
+                offset[i] = offset[last];
+                bodies[last] = null;
+                count--;
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public DynamicBody getBody(int index) {
+        return bodies[index];
+    }
+
+    /**
+     * Writes how far a hazard has moved along its path, for a level snapshot.
+     *
+     * @param body the body, which need not be a hazard
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void save(Body body, DataOutputStream out) throws IOException {
+        int i = indexOf(body);
+        out.writeBoolean(i >= 0);
+        if (i >= 0) {
+            out.writeFloat(offset[i]);
+            out.writeFloat(direction[i]);
+        }
+    }
+
+    /**
+     * Reads how far a hazard had moved along its path, written by {@link #save(Body, DataOutputStream)}.
+     *
+     * @param body the body, which need not be a hazard
+     * @param in the stream to read from
+     * @throws IOException if the stream cannot be read
+     */
+    public void load(Body body, DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return;
+        }
+        float bodyOffset = in.readFloat();
+        float bodyDirection = in.readFloat();
+
+        int i = indexOf(body);
+        if (i >= 0) {
+            offset[i] = bodyOffset;
+            direction[i] = bodyDirection;
+        }
+    }
+
+    private int indexOf(Body body) {
+        for (int i = 0; i < count; i++) {
+            if (bodies[i] == body) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the velocity of every registered hazard so that it moves its distance for the step.
+     *
+     * @param stepEvent the event fired before each simulation step
+     */
+    @Override
+    public void preStep(StepEvent stepEvent) {
+        //the bucket only needs checking once for all the drifting hazards
+        boolean bucketCollected = state.isBucketCollected();
+
+        for (int i = 0; i < count; i++) {
+            float distance;
+            if (kinds[i] == PATROL) {
+                //reverse direction once it has moved too far in the positive or negative direction
+                if (offset[i] > range[i] || offset[i] < -range[i]) {
+                    direction[i] = -direction[i];
+                }
+                distance = speed[i] * direction[i];
+                offset[i] += distance;
+            } else if (bucketCollected) {
+                distance = -speed[i];
+            } else {
+                distance = 0;
+            }
+
+            scratch.set(distance * SimulationLoop.STEPS_PER_SECOND, 0);
+            bodies[i].setLinearVelocity(scratch);
+        }
+    }
+
+    /**
+     * Not used but required by StepListener.
+     */
+    @Override
+    public void postStep(StepEvent stepEvent) {
+    }
+}
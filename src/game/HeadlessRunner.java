@@ -0,0 +1,267 @@
+/**
+ * Runs a level of Happy Chicken without a window, view, GUI or sound device.
+ * <p>
+ * The level's world is stepped one fixed time step at a time, as fast as the CPU allows rather than at the Swing frame rate,
+ * while an optional InputScript drives the chicken through a ChickenController.
+ * If the chicken reaches the nest or the door, the runner carries on stepping the next level.
+ * <p>
+ * This is used to soak-test levels and to measure the cost of a simulation step. It can be run from the command line:
+ * <pre>
+ * java -Djava.awt.headless=true game.HeadlessRunner [level] [steps] [script file] [repeats]
+ * </pre>
+ * The script can be a binary input log recorded by an InputRecorder; a level of 0 starts in the level the log was recorded in.
+ * With a number of repeats, the script is replayed that many times on newly built levels, for profiling and regression timing.
+ * Adding {@code -Dgame.recordGhost=<file>} records the first level of the last run into a ghost file for the GhostViewer.
+ * A ghost file holds a single level, so that run ends when the chicken leaves its first level.
+ * Adding {@code -Dgame.recordAudio=true} plays sound through RecordingAudio and lists the sounds asked for at the end of the run.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import java.io.IOException;
+
+public class HeadlessRunner {
+    private final Game game;
+    private final InputScript script;
+    private GameLevel level;
+    private ChickenController chickenController;
+
+    /**
+     * Records the starting level into a ghost, or null if it is not being recorded.
+     */
+    private GhostRecorder ghost;
+    private boolean leftGhostLevel = false;
+
+    /**
+     * Number of world steps taken so far.
+     */
+    private long steps = 0;
+
+    /**
+     * Time spent stepping the world so far, in nanoseconds.
+     */
+    private long elapsedNanos = 0;
+
+    /**
+     * Constructs a runner for the given level.
+     *
+     * @param levelNumber the level to start in (1, 2 or 3)
+     * @param script the scripted input to feed to the chicken, or null for no input
+     */
+    public HeadlessRunner(int levelNumber, InputScript script) {
+        this.script = script;
+        game = Game.createHeadless();
+        level = createLevel(levelNumber, game);
+        game.setHeadlessLevel(level);
+        chickenController = new ChickenController(level.getChicken(), level);
+    }
+
+    /**
+     * Builds a new instance of the given level.
+     *
+     * @param levelNumber the level to build (1, 2 or 3)
+     * @param game the game the level belongs to
+     * @return the new level
+     */
+    public static GameLevel createLevel(int levelNumber, Game game) {
+        switch (levelNumber) {
+            case 1:
+                return new Level1(game);
+            case 2:
+                return new Level2(game);
+            case 3:
+                return new Level3(game);
+            default:
+                throw new IllegalArgumentException("No such level: " + levelNumber);
+        }
+    }
+
+    /**
+     * Finds the number of a level, as used by {@link #createLevel(int, Game)}.
+     *
+     * @param level the level
+     * @return the level number (1, 2 or 3), or 0 for any other level
+     */
+    public static int levelNumber(GameLevel level) {
+        if (level instanceof Level1) {
+            return 1;
+        } else if (level instanceof Level2) {
+            return 2;
+        } else if (level instanceof Level3) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * Steps the world until the given number of steps have been taken, or the game is over or complete.
+     *
+     * @param maxSteps the maximum number of steps to take
+     * @return the number of steps taken by this call
+     */
+    public long run(long maxSteps) {
+        long start = System.nanoTime();
+        long taken = 0;
+
+        while (taken < maxSteps && !isFinished()) {
+            step();
+            taken++;
+        }
+
+        elapsedNanos += System.nanoTime() - start;
+        return taken;
+    }
+
+    /**
+     * Feeds the scripted input for the current step to the chicken, then advances the world by one step.
+     */
+    public void step() {
+        if (script != null) {
+            script.apply(steps, chickenController);
+        }
+        level.oneStep();
+        steps++;
+
+        //follow the game onto the next level if the chicken reached the nest or the door
+        if (game.getLevel() != level) {
+            if (ghost != null) {
+                //a ghost holds a single level, so the run ends here
+                ghost.detach();
+                leftGhostLevel = true;
+            }
+            level = game.getLevel();
+            chickenController.updateChicken(level.getChicken(), level);
+        }
+    }
+
+    /**
+     * Checks whether the run has ended, either because the chicken was roasted or the last level was won.
+     *
+     * @return true if there is nothing more to simulate
+     */
+    public boolean isFinished() {
+        return leftGhostLevel || level.isGameOver() || (level instanceof Level3 && level.isComplete());
+    }
+
+    /**
+     * Starts recording the current level into a ghost. The run ends when the chicken leaves the level.
+     *
+     * @return the recorder
+     */
+    public GhostRecorder recordGhost() {
+        ghost = new GhostRecorder(level);
+        return ghost;
+    }
+
+    /**
+     * Returns whether the run ended because the chicken left the level being recorded into a ghost.
+     *
+     * @return true if the ghost's level was left
+     */
+    public boolean hasLeftGhostLevel() {
+        return leftGhostLevel;
+    }
+
+    public GameLevel getLevel() {
+        return level;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the average stepping rate achieved so far.
+     *
+     * @return the number of world steps per second of wall-clock time
+     */
+    public double getStepsPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return steps * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Runs a level headlessly and reports the number of steps per second.
+     *
+     * @param args optional level number (default 1, or 0 for the script's level), number of steps (default 10000),
+     *             input script file and number of repeats (default 1)
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int levelNumber = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        long maxSteps = args.length > 1 ? Long.parseLong(args[1]) : 10000;
+        int repeats = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        InputScript script = null;
+        if (args.length > 2) {
+            try {
+                script = InputScript.load(args[2]);
+            } catch (IOException e) {
+                System.out.println("Error loading input script: " + e);
+                return;
+            }
+        }
+        if (levelNumber == 0) {
+            levelNumber = script != null && script.getLevel() > 0 ? script.getLevel() : 1;
+        }
+
+        //choose the audio backend before any level loads its sounds
+        RecordingAudio audio = null;
+        if (Boolean.getBoolean("game.recordAudio")) {
+            audio = new RecordingAudio();
+            Sounds.setBackend(audio);
+        }
+
+        String ghostFile = System.getProperty("game.recordGhost");
+        HeadlessRunner runner = null;
+        long totalSteps = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            if (script != null) {
+                script.rewind();
+            }
+            runner = new HeadlessRunner(levelNumber, script);
+            GhostRecorder ghost = ghostFile != null && i == repeats - 1 ? runner.recordGhost() : null;
+            runner.run(maxSteps);
+            if (ghost != null) {
+                try {
+                    ghost.save(ghostFile);
+                    System.out.println("Saved " + ghost.getFrameCount() + " ghost frames to " + ghostFile);
+                    if (runner.hasLeftGhostLevel()) {
+                        System.out.println("The run ended when the chicken left the recorded level");
+                    }
+                } catch (IOException e) {
+                    System.out.println("Error saving ghost: " + e);
+                }
+            }
+            totalSteps += runner.getSteps();
+        }
+        if (repeats > 1) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Replayed %d times: %d steps in %.2f s (%.1f steps/second including level building)%n",
+                    repeats, totalSteps, seconds, totalSteps / seconds);
+        }
+
+        GameLevel level = runner.getLevel();
+        System.out.println("Steps: " + runner.getSteps());
+        System.out.printf("Steps/second: %.1f%n", runner.getStepsPerSecond());
+        System.out.println("Finished in: " + level.getClass().getSimpleName());
+        System.out.println("Eggs collected: " + level.getChicken().getCredits());
+        System.out.println("Roasted: " + level.isGameOver());
+        if (audio != null) {
+            for (RecordingAudio.Event event : audio.getEvents()) {
+                System.out.println("Sound: " + event);
+            }
+        }
+    }
+}
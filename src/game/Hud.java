@@ -0,0 +1,174 @@
+/**
+ * Draws the heads-up display over the game: the egg count, the Level2 countdown, and the game over and win messages.
+ * <p>
+ * The text is rendered once into a cached transparent image, which is then copied onto the view every frame.
+ * The image is only rendered again when something it shows changes: the level, the egg count, the time left,
+ * whether the game is over or the level complete, or the width of the view.
+ * The fonts, their metrics and the position of each centred message are worked out once and kept,
+ * so painting a frame where nothing has changed creates no strings, fonts or metrics.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+public class Hud {
+    /**
+     * Font used for the message shown when the golden egg is collected.
+     */
+    private static final Font WIN_FONT = new Font("Monospaced", Font.PLAIN, 25);
+    private static final Color WIN_COLOUR = new Color(61, 22, 255, 229);
+
+    private static final String COOKED_TEXT = "Oh no! You're cooked! Game Over!";
+    private static final String TIME_UP_TEXT = "Time's up! The nest burnt down! Game Over!";
+    private static final String WIN_TEXT = "Golden egg collected! You won!";
+
+    /**
+     * Height of the HUD image, enough for every line of text at the top of the view.
+     */
+    private static final int HEIGHT = 110;
+
+    private BufferedImage image;
+    private FontMetrics statusMetrics;
+    private FontMetrics winMetrics;
+
+    /**
+     * X position of each centred message, for the current width.
+     */
+    private final Map<String, Integer> centredX = new HashMap<>();
+
+    //what the cached image currently shows
+    private GameLevel shownLevel;
+    private int shownCredits;
+    private int shownTimeLeft;
+    private boolean shownGameOver;
+    private boolean shownComplete;
+
+    private int redraws = 0;
+
+    /**
+     * Paints the HUD for the given level, rendering it again first only if what it shows has changed.
+     *
+     * @param g the graphics context of the view
+     * @param level the current level
+     * @param width the width of the view
+     */
+    public void paint(Graphics2D g, GameLevel level, int width) {
+        int credits = level.getChicken().getCredits();
+        int timeLeft = level instanceof Level2 ? ((Level2) level).getTimeLeft() : 0;
+        boolean gameOver = level.isGameOver();
+        boolean complete = level.isComplete();
+
+        if (image == null || image.getWidth() != width || level != shownLevel || credits != shownCredits
+                || timeLeft != shownTimeLeft || gameOver != shownGameOver || complete != shownComplete) {
+            render(g.getDeviceConfiguration(), level, width, credits, timeLeft, gameOver, complete);
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    public int getRedraws() {
+        return redraws;
+    }
+
+    /**
+     * Renders the HUD into the cached image.
+     */
+    private void render(GraphicsConfiguration config, GameLevel level, int width, int credits, int timeLeft, boolean gameOver, boolean complete) {
+        if (image == null || image.getWidth() != width) {
+            image = config != null
+                    ? config.createCompatibleImage(width, HEIGHT, Transparency.TRANSLUCENT)
+                    : new BufferedImage(width, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+            centredX.clear();
+        }
+
+        Graphics2D g = image.createGraphics();
+        try {
+            //clear what was drawn before
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, width, HEIGHT);
+            g.setComposite(AlphaComposite.SrcOver);
+
+            if (statusMetrics == null) {
+                statusMetrics = g.getFontMetrics(GameView.STATUS_FONT);
+                winMetrics = g.getFontMetrics(WIN_FONT);
+            }
+            draw(g, level, width, credits, timeLeft, gameOver, complete);
+        } finally {
+            g.dispose();
+        }
+
+        shownLevel = level;
+        shownCredits = credits;
+        shownTimeLeft = timeLeft;
+        shownGameOver = gameOver;
+        shownComplete = complete;
+        redraws++;
+    }
+
+    /**
+     * Draws the egg count, messages and countdown for the given state.
+     */
+    private void draw(Graphics2D g, GameLevel level, int width, int credits, int timeLeft, boolean gameOver, boolean complete) {
+        //print number of eggs collected by chicken in the screen
+        if (!(level instanceof Level3 && complete)) {
+            if (level instanceof Level1 || level instanceof Level3) {
+                g.setColor(Color.BLUE);
+            } else if (level instanceof Level2) {
+                g.setColor(Color.BLACK);
+            }
+            g.setFont(GameView.STATUS_FONT);
+            g.drawString("Eggs collected: " + credits, 50, 50);
+        }
+
+        //print game over message
+        if ((level instanceof Level1 || level instanceof Level3) && gameOver) {
+            g.setColor(Color.RED);
+            g.setFont(GameView.STATUS_FONT);
+            g.drawString(COOKED_TEXT, centredX(COOKED_TEXT, statusMetrics, width), 80);
+        } else if (level instanceof Level2 && gameOver && timeLeft != 0) {
+            g.setColor(Color.RED);
+            g.setFont(GameView.STATUS_FONT);
+            g.drawString(COOKED_TEXT, centredX(COOKED_TEXT, statusMetrics, width), 80);
+        } else if (level instanceof Level3 && complete) {
+            g.setColor(WIN_COLOUR);
+            g.setFont(WIN_FONT);
+            g.drawString(WIN_TEXT, centredX(WIN_TEXT, winMetrics, width), 95);
+        }
+
+        //for level2
+        if (level instanceof Level2) {
+            Level2 level2 = (Level2) level;
+            if (timeLeft < 10) {
+                g.setColor(Color.RED);
+            } else {
+                g.setColor(Color.BLACK);
+            }
+            g.setFont(GameView.STATUS_FONT);
+            if (timeLeft == 0) {
+                g.drawString(TIME_UP_TEXT, centredX(TIME_UP_TEXT, statusMetrics, width), 80);
+            } else if (timeLeft > 0 && !gameOver) {
+                //centre the countdown as if it were a full "00:00"
+                g.drawString(level2.getMinsLeft() + ":" + level2.getSecsLefts(), centredX("00:00", statusMetrics, width), 80);
+            }
+        }
+    }
+
+    /**
+     * Returns the x position that centres the given text in the view, working it out only the first time.
+     */
+    private int centredX(String text, FontMetrics metrics, int width) {
+        Integer x = centredX.get(text);
+        if (x == null) {
+            x = width / 2 - metrics.stringWidth(text) / 2;
+            centredX.put(text, x);
+        }
+        return x;
+    }
+}
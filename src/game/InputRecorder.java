@@ -0,0 +1,118 @@
+/**
+ * Records the keys handled by a ChickenController into a binary input log, tagged with the world step they were handled at.
+ * <p>
+ * Steps are counted by the Game across level changes, from when the recording was started, which is how a HeadlessRunner
+ * counts them when it replays the log. The controller handles keys while holding the level's step lock, so each key
+ * lands between the same two steps when replayed as when it was played, and a replay follows the same path.
+ * The replay steps freshly built levels, so while a game is recorded, resetting it builds a new Level1
+ * instead of restoring the old one in place, whose bodies would be in a different order.
+ * <p>
+ * Each event is written to the file as soon as it is recorded, so the log is complete even if the game is closed.
+ * A game is recorded by running it with {@code -Dgame.recordInput=<file>}, and replayed with
+ * {@code java game.HeadlessRunner 0 <steps> <file>}.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import java.io.*;
+
+public class InputRecorder implements Closeable {
+    private final String fileName;
+    private final Game game;
+
+    private DataOutputStream out;
+    private InputScript script = new InputScript();
+
+    /**
+     * The game step the recording was started at.
+     */
+    private long startStep;
+
+    /**
+     * The step of the last event recorded, counted from the start of the recording.
+     */
+    private long lastStep;
+
+    /**
+     * Constructs a recorder for the given game. Nothing is recorded until it is started.
+     *
+     * @param fileName the path of the log file
+     * @param game the game whose steps are counted
+     */
+    public InputRecorder(String fileName, Game game) {
+        this.fileName = fileName;
+        this.game = game;
+    }
+
+    /**
+     * Starts a new recording from the game's current step, replacing anything recorded before.
+     *
+     * @param level the level being started
+     */
+    public synchronized void start(GameLevel level) {
+        close();
+        script = new InputScript();
+        script.setLevel(HeadlessRunner.levelNumber(level));
+        startStep = game.getSteps();
+        lastStep = 0;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+            InputScript.writeLogHeader(out, script.getLevel());
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Error recording input: " + e);
+            out = null;
+        }
+    }
+
+    /**
+     * Records a key handled at the game's current step. Keys other than the four game keys are ignored.
+     *
+     * @param keyCode the key code
+     * @param pressed true for a key press, false for a key release
+     */
+    public synchronized void record(int keyCode, boolean pressed) {
+        if (out == null || InputScript.logKeyIndex(keyCode) < 0) {
+            return;
+        }
+
+        long step = game.getSteps() - startStep;
+        script.add(step, keyCode, pressed);
+        try {
+            InputScript.writeLogEvent(out, step - lastStep, keyCode, pressed);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Error recording input: " + e);
+            close();
+        }
+        lastStep = step;
+    }
+
+    /**
+     * Returns what has been recorded since the recording was started.
+     *
+     * @return the recorded script
+     */
+    public synchronized InputScript getScript() {
+        return script;
+    }
+
+    /**
+     * Stops recording and closes the log file.
+     */
+    @Override
+    public synchronized void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.out.println("Error closing input log: " + e);
+            }
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * A scripted sequence of key presses and releases, used to drive the chicken without a keyboard.
+ * <p>
+ * Each event is tagged with the world step at which it should be handled, and is fed to a ChickenController
+ * exactly as if the player had pressed or released the key.
+ * <p>
+ * Scripts can be written as plain text, with one event per line in the form {@code <step> <press|release> <key>},
+ * where the key is one of LEFT, RIGHT, SPACE or SHIFT. Blank lines and lines starting with # are ignored, for example:
+ * <pre>
+ * # walk right for two seconds, then jump
+ * 0 press RIGHT
+ * 120 release RIGHT
+ * 121 press SPACE
+ * </pre>
+ * Scripts can also be saved as compact binary input logs, which is how an InputRecorder records a game as it is played.
+ * A log starts with the bytes {@code HCIN}, a version byte and the number of the level it starts in. Each event is then
+ * one variable-length number holding the steps since the previous event, whether the key was pressed and which of
+ * the four keys it was, so most events take a single byte. {@link #load(String)} reads both kinds of file.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import java.awt.Canvas;
+import java.awt.Component;
+import java.awt.event.KeyEvent;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class InputScript {
+    /**
+     * Component used as the source of the generated key events.
+     */
+    private static final Component SOURCE = new Canvas();
+
+    /**
+     * The bytes every binary input log starts with.
+     */
+    private static final byte[] LOG_MAGIC = {'H', 'C', 'I', 'N'};
+
+    private static final int LOG_VERSION = 1;
+
+    /**
+     * The keys that can be stored in a binary input log, in the order of their index in the log.
+     */
+    private static final int[] LOG_KEYS = {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_SPACE, KeyEvent.VK_SHIFT};
+
+    /**
+     * The level the script starts in, or 0 if it does not say.
+     */
+    private int level = 0;
+
+    private final List<Long> steps = new ArrayList<>();
+    private final List<Integer> keyCodes = new ArrayList<>();
+    private final List<Boolean> presses = new ArrayList<>();
+
+    /**
+     * Index of the next event to be handled.
+     */
+    private int next = 0;
+
+    /**
+     * Adds an event to the end of the script. Events must be added in step order.
+     *
+     * @param step the world step at which the event is handled
+     * @param keyCode the key code, such as KeyEvent.VK_LEFT
+     * @param pressed true for a key press, false for a key release
+     */
+    public void add(long step, int keyCode, boolean pressed) {
+        if (!steps.isEmpty() && step < steps.get(steps.size() - 1)) {
+            throw new IllegalArgumentException("Events must be added in step order");
+        }
+        steps.add(step);
+        keyCodes.add(keyCode);
+        presses.add(pressed);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int size() {
+        return steps.size();
+    }
+
+    public long getStep(int index) {
+        return steps.get(index);
+    }
+
+    public int getKeyCode(int index) {
+        return keyCodes.get(index);
+    }
+
+    public boolean isPressed(int index) {
+        return presses.get(index);
+    }
+
+    /**
+     * Feeds every event due at the given step to the controller.
+     *
+     * @param step the current world step
+     * @param controller the controller that handles the events
+     */
+    public void apply(long step, ChickenController controller) {
+        while (next < steps.size() && steps.get(next) <= step) {
+            int code = keyCodes.get(next);
+            if (presses.get(next)) {
+                controller.keyPressed(new KeyEvent(SOURCE, KeyEvent.KEY_PRESSED, 0, 0, code, KeyEvent.CHAR_UNDEFINED));
+            } else {
+                controller.keyReleased(new KeyEvent(SOURCE, KeyEvent.KEY_RELEASED, 0, 0, code, KeyEvent.CHAR_UNDEFINED));
+            }
+            next++;
+        }
+    }
+
+    /**
+     * Rewinds the script so it can be played again from the start.
+     */
+    public void rewind() {
+        next = 0;
+    }
+
+    /**
+     * Reads a script from a text file or a binary input log.
+     *
+     * @param fileName the path of the script file
+     * @return the script read from the file
+     * @throws IOException if the file cannot be read or a line cannot be understood
+     */
+    public static InputScript load(String fileName) throws IOException {
+        byte[] start = new byte[LOG_MAGIC.length];
+        int read;
+        try (InputStream in = new FileInputStream(fileName)) {
+            read = in.readNBytes(start, 0, start.length);
+        }
+        if (read == start.length && Arrays.equals(start, LOG_MAGIC)) {
+            return loadLog(fileName);
+        }
+
+        InputScript script = new InputScript();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split("\\s+");
+                if (parts.length != 3) {
+                    throw new IOException(fileName + ":" + lineNumber + ": expected <step> <press|release> <key>");
+                }
+                boolean pressed;
+                if (parts[1].equalsIgnoreCase("press")) {
+                    pressed = true;
+                } else if (parts[1].equalsIgnoreCase("release")) {
+                    pressed = false;
+                } else {
+                    throw new IOException(fileName + ":" + lineNumber + ": unknown action " + parts[1]);
+                }
+                try {
+                    script.add(Long.parseLong(parts[0]), keyCode(parts[2]), pressed);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(fileName + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return script;
+    }
+
+    /**
+     * Saves the script as a binary input log.
+     *
+     * @param fileName the path of the log file
+     * @throws IOException if the file cannot be written
+     */
+    public void saveLog(String fileName) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            writeLogHeader(out, level);
+            long previous = 0;
+            for (int i = 0; i < steps.size(); i++) {
+                writeLogEvent(out, steps.get(i) - previous, keyCodes.get(i), presses.get(i));
+                previous = steps.get(i);
+            }
+        }
+    }
+
+    /**
+     * Reads a binary input log.
+     *
+     * @param fileName the path of the log file
+     * @return the script read from the log, starting in the level stored in the log
+     * @throws IOException if the file cannot be read or is not an input log
+     */
+    public static InputScript loadLog(String fileName) throws IOException {
+        InputScript script = new InputScript();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            byte[] magic = new byte[LOG_MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, LOG_MAGIC)) {
+                throw new IOException(fileName + ": not an input log");
+            }
+            int version = in.readUnsignedByte();
+            if (version != LOG_VERSION) {
+                throw new IOException(fileName + ": unknown input log version " + version);
+            }
+            script.setLevel(in.readUnsignedByte());
+
+            long step = 0;
+            int first;
+            while ((first = in.read()) >= 0) {
+                //read the rest of the variable-length number, seven bits at a time
+                long value = first & 0x7F;
+                int shift = 7;
+                int next = first;
+                while ((next & 0x80) != 0) {
+                    next = in.readUnsignedByte();
+                    value |= (long) (next & 0x7F) << shift;
+                    shift += 7;
+                }
+                step += value >>> 3;
+                script.add(step, LOG_KEYS[(int) (value & 3)], (value & 4) != 0);
+            }
+        }
+        return script;
+    }
+
+    /**
+     * Writes the start of a binary input log.
+     *
+     * @param out the stream to write to
+     * @param level the level the log starts in
+     * @throws IOException if the stream cannot be written
+     */
+    static void writeLogHeader(DataOutputStream out, int level) throws IOException {
+        out.write(LOG_MAGIC);
+        out.writeByte(LOG_VERSION);
+        out.writeByte(level);
+    }
+
+    /**
+     * Writes one event of a binary input log.
+     *
+     * @param out the stream to write to
+     * @param stepsSincePrevious the number of steps since the previous event
+     * @param keyCode the key code, which must be one of the four game keys
+     * @param pressed true for a key press, false for a key release
+     * @throws IOException if the stream cannot be written
+     */
+    static void writeLogEvent(DataOutputStream out, long stepsSincePrevious, int keyCode, boolean pressed) throws IOException {
+        int key = logKeyIndex(keyCode);
+        if (key < 0) {
+            throw new IllegalArgumentException("Key " + keyCode + " cannot be stored in an input log");
+        }
+        long value = stepsSincePrevious << 3 | (pressed ? 4 : 0) | key;
+        //write seven bits at a time, with the top bit set while more follow
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Finds the index of a key in a binary input log.
+     *
+     * @param keyCode the key code
+     * @return the index of the key, or -1 if it is not one of the four game keys
+     */
+    static int logKeyIndex(int keyCode) {
+        for (int i = 0; i < LOG_KEYS.length; i++) {
+            if (LOG_KEYS[i] == keyCode) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts the name of a game key to its key code.
+     *
+     * @param name the key name (LEFT, RIGHT, SPACE or SHIFT)
+     * @return the matching key code
+     */
+    public static int keyCode(String name) {
+        switch (name.toUpperCase()) {
+            case "LEFT":
+                return KeyEvent.VK_LEFT;
+            case "RIGHT":
+                return KeyEvent.VK_RIGHT;
+            case "SPACE":
+                return KeyEvent.VK_SPACE;
+            case "SHIFT":
+                return KeyEvent.VK_SHIFT;
+            default:
+                throw new IllegalArgumentException("unknown key " + name);
+        }
+    }
+}
@@ -2,7 +2,7 @@
  * Represents a fire that moves horizontally across the screen in the game.
  * <p>
  * It is a DynamicBody that moves slowly from right to left once the water bucket has been collected.
- * It registers itself as a StepListener to update its position every step of the simulation.
+ * It registers itself with its level's HazardMotion, which moves every moving hazard together each step.
  * <p>
  * This is used in Level3 as the final fire obstacle the player must extinguish to win the game.
  * <p>
@@ -14,58 +14,37 @@
 package game;
 
 import city.cs.engine.*;
-import org.jbox2d.common.Vec2;
 
-public class LastMovingFire extends DynamicBody implements StepListener {
+public class LastMovingFire extends DynamicBody implements Sprite {
     private static final Shape lastMovingFireShape = new PolygonShape(-0.1f,4.95f, 5.99f,-2.3f, 5.91f,-3.72f, 4.62f,-4.76f, -4.27f,-4.89f, -6.09f,-3.35f, -5.56f,-1.28f);
 
-    private static final BodyImage image = new BodyImage("data/fire.png", 10f);
+    static final SpriteAtlas.Region image = SpriteAtlas.region("data/fire.png");
+    static final float IMAGE_HEIGHT = 10f;
 
     /**
      * Speed at which the fire moves left.
      */
-    private float speed = 0.05f;
+    private static final float SPEED = 0.05f;
 
     /**
-     * Constructs a new LastMovingFire in the specified world.
+     * Constructs a new LastMovingFire in the specified level.
      *
-     * @param world the game world where the fire will be placed
+     * @param level the game level where the fire will be placed
      */
-    public LastMovingFire(World world) {
-        super(world, lastMovingFireShape);
-        addImage(image);
-        world.addStepListener(this);
+    public LastMovingFire(GameLevel level) {
+        super(level, lastMovingFireShape);
+        SpriteIndex.register(level, this);
+        //move left once the water bucket has been collected
+        level.getHazardMotion().addDrift(this, SPEED);
     }
 
-    /**
-     * Moves the fire horizontally towards the left at a constant speed.
-     */
-    public void move() {
-        //get the current position of the fire
-        Vec2 currentPosition = getPosition();
-
-        //move the grass by the speed in the negative x-direction
-        setPosition(new Vec2(currentPosition.x - speed, currentPosition.y));
-    }
-
-    /**
-     * Called before each physics step; triggers movement if the water bucket has been collected.
-     *
-     * @param stepEvent the event triggered before the simulation step
-     */
     @Override
-    public void preStep(StepEvent stepEvent) {
-        if (WaterBucket.getCollectedBucket()) {
-            move();
-        }
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
     }
 
-    /**
-     * Called after each simulation step.
-     *
-     * @param stepEvent the event triggered after the simulation step
-     */
     @Override
-    public void postStep(StepEvent stepEvent) {
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
     }
 }
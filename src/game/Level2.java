@@ -5,7 +5,7 @@
  * This level includes multiple platforms, eggs, grass tiles, and a door to proceed to the next level.
  * If the timer runs out before the player escapes, the nest "burns down" and the chicken gets roasted.
  * <p>
- * This class also manages an internal countdown timer and contains logic to visually place elements like Egg, Fire, and Grass.
+ * This class also manages a countdown timer, kept by the level's GameClock in physics steps so it only runs while the level does. Elements like Egg, Fire, and Grass are placed from the level file data/levels/level2.lvl.
  * <p>
  * @author      Joyce Ow joyce.ow@city.ac.uk
  * @version     2.0
@@ -15,17 +15,11 @@
 package game;
 
 import city.cs.engine.*;
-import org.jbox2d.common.Vec2;
-import javax.swing.*;
+import java.io.IOException;
 import static java.lang.Math.round;
 
 public class Level2 extends GameLevel {
-    private Egg egg;
-    private Fire fire;
-    private Grass grass;
-    private Door door;
-
-    private Timer timer;
+    private GameClock.Task countdown;
     private int timeLeft;
 
     /**
@@ -40,92 +34,19 @@ public class Level2 extends GameLevel {
         timeLeft = 120;
         setupTimer();
 
-        //make a ground platform
-        Shape shape = new BoxShape(50, 10f);
-        StaticBody ground = new StaticBody(this, shape);
-        ground.setPosition(new Vec2(0f, -125f));
-        ground.addImage(new BodyImage("data/soil.jpg", 20));
-
-        //make side borders for the game
-        Shape borderShape = new BoxShape(4f, 50f);
-
-        StaticBody border1= new StaticBody(this, borderShape);
-        border1.setPosition(new Vec2(48, -70));
-        border1.addImage(new BodyImage("data/border2.jpg", 100));
-
-        StaticBody border2= new StaticBody(this, borderShape);
-        border2.setPosition(new Vec2(-52, -70));
-        border2.addImage(new BodyImage("data/border2.jpg", 100));
-
-        //add in a chicken character
-        getChicken().setPosition(new Vec2(-34, -105.5f));
-
-        //looping of grass and eggs and fire
-        for (int i=0; i<3; i++) {
-            grassAndEgg(2-(12*i), -113);
-        }
-
-        for (int i=0; i<3; i++) {
-            grassAndEgg(20+(10*i), -110+(5*i));
-        }
-
-        for (int i=0; i<2; i++) {
-            grassAndEgg(28-(10*i), -95+(5*i));
-        }
-
-        for (int i=0; i<4; i++) {
-            grassAndEgg(6-(12*i), -90);
-        }
-
-        grassAndEgg(-42, -85);
-
-        for (int i=0; i<2; i++) {
-            fire = new Fire(this);
-            fire.setPosition(new Vec2(-(24*i), -92));
-        }
-
-        for (int i=0; i<3; i++) {
-            grassAndEgg(-30+(10*i),-78+(5*i));
-        }
-
-        for (int i=0; i<4; i++) {
-            grassAndEgg((12*i), -63);
-        }
-
-        fire = new Fire(this);
-        fire.setPosition(new Vec2(-14, -71));
-
-        for (int i=0; i<2; i++) {
-            fire = new Fire(this);
-            fire.setPosition(new Vec2(5.5f+(24*i), -64));
+        //add in the ground, borders, grass and eggs, fires and the door
+        try {
+            LevelLoader.load(this, game, "data/levels/level2.lvl");
+        } catch (IOException e) {
+            System.out.println("Error loading level: " + e);
         }
 
 
-        //add in door to proceed to the next level
-        door = new Door(this);
-        door.setPosition(new Vec2(42, -60));
-
-
         //add in collision listener for chicken character
         ChickenCollisions chickenCollisions = new ChickenCollisions(getChicken(), game);
         getChicken().addCollisionListener(chickenCollisions);
     }
 
-    /**
-     * Helper method to place a Grass tile and an Egg above it.
-     *
-     * @param x the x-coordinate
-     * @param y the y-coordinate
-     */
-    public void grassAndEgg(int x, int y){
-        grass = new Grass(this);
-        grass.setPosition(new Vec2(x, y));
-
-        egg = new Egg(this);
-        egg.setPosition(new Vec2(x, y+4));
-        egg.setGravityScale(0);
-    }
-
     /**
      * Determines if the level is complete.
      *
@@ -140,13 +61,18 @@ public class Level2 extends GameLevel {
     }
 
     /**
-     * Starts the countdown timer (2 minutes)
+     * Sets up the countdown timer (2 minutes)
      * Triggers game over logic if the time runs out.
+     * <p>
+     * The countdown ticks once every second of physics steps, so it does not start until the level is started,
+     * as the level may be built in the background long before it is played, and it stops whenever the level stops.
      */
     public void setupTimer() {
-        //create a timer that ticks every second
-        timer = new Timer(1000, e -> updateTimer());
-        timer.start();
+        if (countdown != null) {
+            countdown.cancel();
+        }
+        //tick every second of game time
+        countdown = getClock().scheduleRepeating(SimulationLoop.STEPS_PER_SECOND, this::updateTimer);
     }
 
     /**
@@ -159,7 +85,7 @@ public class Level2 extends GameLevel {
             timeLeft--;
         } else {
             //handle end of level when timer reaches 0
-            timer.stop();
+            countdown.cancel();
             timeUp();
         }
     }
@@ -170,14 +96,8 @@ public class Level2 extends GameLevel {
      */
     public void timeUp() {
         System.out.println("Oh no! The nest burnt down!");
+        //setRoasted also plays the roasted sound
         getChicken().setRoasted();
-        //play roasted sound
-        try {
-            SoundClip roastedSound = new SoundClip("data/roasted.wav");
-            roastedSound.loop();
-        } catch (Exception e) {
-            System.out.println("Error playing roasted sound: " + e);
-        }
         getChicken().getWorld().stop();
     }
 
@@ -185,6 +105,17 @@ public class Level2 extends GameLevel {
         return timeLeft;
     }
 
+    /**
+     * Sets the seconds left on the countdown, such as when a level snapshot is restored.
+     * The countdown starts again, so the next second is taken off a full second of game time later.
+     *
+     * @param timeLeft the seconds left
+     */
+    public void setTimeLeft(int timeLeft) {
+        this.timeLeft = timeLeft;
+        setupTimer();
+    }
+
     public int getMinsLeft() {
         return round(timeLeft/60);
     }
@@ -206,22 +137,4 @@ public class Level2 extends GameLevel {
             return false;
         }
     }
-
-    /**
-     * Pauses the level timer.
-     */
-    public void pauseTimer() {
-        if (timer != null) {
-            timer.stop();
-        }
-    }
-
-    /**
-     * Resumes the level timer.
-     */
-    public void resumeTimer() {
-        if (timer != null) {
-            timer.start();
-        }
-    }
 }
@@ -16,18 +16,11 @@ package game;
 import city.cs.engine.*;
 import org.jbox2d.common.Vec2;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 
 public class Level3 extends GameLevel {
-    private Egg egg;
-    private Fire fire;
-    private QueenEgg queenEgg;
-    private MovingFire movingFire;
-    private Grass grass;
-    private WaterBucket bucket;
-    private LastMovingFire lastMovingFire;
-    private GoldEgg goldEgg;
     private List<Grass> grassList = new ArrayList<>();
 
     /**
@@ -39,138 +32,19 @@ public class Level3 extends GameLevel {
     public Level3(Game game) {
         super(game);
 
-        //make a ground platform
-        Shape shape = new BoxShape(30, 5f);
-        StaticBody ground = new StaticBody(this, shape);
-        ground.setPosition(new Vec2(0f, -116f));
-        ground.addImage(new BodyImage("data/grass.jpeg",10));
-
-        //make side borders for the game
-        Shape borderShape = new BoxShape(15f, 300f);
-        StaticBody border1 = new StaticBody(this, borderShape);
-        border1.setPosition(new Vec2(45, 0));
-        border1.addImage(new BodyImage("data/border1.jpg", 424));
-
-        StaticBody border2 = new StaticBody(this, borderShape);
-        border2.setPosition(new Vec2(-45, 0));
-        border2.addImage(new BodyImage("data/border1.jpg", 424));
-
-        //add in a chicken character
-        getChicken().setPosition(new Vec2(0, 115.5f));
-        //getChicken().setPosition(new Vec2(-10, -90.5f)); //to land straight on the ground
-
-
-        //looping of eggs
-        for (int j=0; j<2; j++) {
-            for (int i = 0; i < 3; i++) {
-                egg = new Egg(this);
-                egg.setPosition(new Vec2(-15 + (15 * i), 100-(20*j)));
-                egg.setGravityScale(0);
-            }
-        }
-
-        for (int j=0; j<2; j++) {
-            for (int i = 0; i < 4; i++) {
-                egg = new Egg(this);
-                egg.setPosition(new Vec2(-22 + (15 * i), 90-(20*j)));
-                egg.setGravityScale(0);
-            }
-        }
-
-        for (int j=0; j<4; j++) {
-            for (int i = 0; i < 4; i++) {
-                egg = new Egg(this);
-                egg.setPosition(new Vec2(-22 + (15 * i), 40-(20*j)));
-                egg.setGravityScale(0);
-            }
-        }
-
-        for (int j=0; j<4; j++) {
-            for (int i = 0; i < 3; i++) {
-                egg = new Egg(this);
-                egg.setPosition(new Vec2(-15 + (15 * i), 30-(20*j)));
-                egg.setGravityScale(0);
-            }
-        }
-
-        for (int i = 0; i < 3; i++) {
-            egg = new Egg(this);
-            egg.setPosition(new Vec2(-15 + (15 * i), -50));
-            egg.setGravityScale(0);
-        }
-
-        for (int j=0; j<2; j++) {
-            for (int i = 0; i < 4; i++) {
-                egg = new Egg(this);
-                egg.setPosition(new Vec2(-22 + (15 * i), -60-(22*j)));
-                egg.setGravityScale(0);
-            }
-        }
-
-
-        //adding fires
-        fire = new Fire(this);
-        fire.setPosition(new Vec2(9, 90));
-        fire.addCollisionListener(new FireCollisions(fire, game));
-
-        movingFire = new MovingFire(this);
-        movingFire.setPosition(new Vec2(0, 50));
-        movingFire.setGravityScale(0);
-
-        fire = new Fire(this);
-        fire.setPosition(new Vec2(-14, 20));
-        fire.addCollisionListener(new FireCollisions(fire, game));
-
-        fire = new Fire(this);
-        fire.setPosition(new Vec2(16, 0));
-        fire.addCollisionListener(new FireCollisions(fire, game));
-
-        movingFire = new MovingFire(this);
-        movingFire.setPosition(new Vec2(-5, -40));
-        movingFire.setGravityScale(0);
-
-        movingFire = new MovingFire(this);
-        movingFire.setPosition(new Vec2(5, -70));
-        movingFire.setGravityScale(0);
-
-        lastMovingFire = new LastMovingFire(this);
-        lastMovingFire.setPosition(new Vec2(-10, -106f));
-        lastMovingFire.setGravityScale(0);
-        lastMovingFire.addCollisionListener(new FireCollisions(lastMovingFire, game));
-
-
-        //add queen eggs
-        for (int i = 0; i < 3; i++) {
-            queenEgg = new QueenEgg(this);
-            queenEgg.setPosition(new Vec2(-15 + (15 * i), 60));
-            queenEgg.setGravityScale(0);
-        }
-
-        for (int i = 0; i < 4; i++) {
-            queenEgg = new QueenEgg(this);
-            queenEgg.setPosition(new Vec2(-22 + (15 * i), -30));
-            queenEgg.setGravityScale(0);
-        }
-
-
-        //add in grass platform
-        for (int i=0; i < 8; i++) {
-            grass = new Grass(this);
-            grass.setPosition(new Vec2(27-(i * 6), -99));
-            // add to the list (so that they can be cleared in the end)
-            grassList.add(grass);
-        }
-
-
-        //add in water bucket to collect
-        bucket = new WaterBucket(this);
-        bucket.setPosition(new Vec2(-27, -108.8f));
-
-        if (WaterBucket.getCollectedBucket()) {
-            goldEgg = new GoldEgg(this);
-            goldEgg.setPosition(new Vec2(0, -107.5f));
+        //add in the ground, borders, eggs, fires, queen eggs, grass platform and the water bucket
+        //this level is a tall shaft, so only the parts near the camera are kept in the world
+        enableChunkStreaming();
+        try {
+            LevelLoader.load(this, game, "data/levels/level3.lvl");
+        } catch (IOException e) {
+            System.out.println("Error loading level: " + e);
         }
+        getChunkStreamer().update();
+        //getChicken().setPosition(new Vec2(-10, -90.5f)); //to land straight on the ground
 
+        //keep the grass platform in a list (so that they can be cleared in the end)
+        collectGrass();
 
         //add in collision listener for chicken character
         ChickenCollisions chickenCollisions = new ChickenCollisions(getChicken(), game);
@@ -183,7 +57,7 @@ public class Level3 extends GameLevel {
      * @return true if the player collected the gold egg, otherwise false
      */
     public boolean isComplete(){
-        if (goldEgg.isGoldEggCollected()){
+        if (getState().isGoldEggCollected()){
             return true;
         } else {
             return false;
@@ -203,6 +77,32 @@ public class Level3 extends GameLevel {
         }
     }
 
+    /**
+     * Puts the level back to the state saved in a snapshot, then lists the grass platforms again,
+     * as grass cleared since the snapshot was taken has been created again.
+     *
+     * @param snapshot a snapshot of this level or another instance of Level3
+     */
+    @Override
+    public void restore(byte[] snapshot) {
+        synchronized (getStepLock()) {
+            super.restore(snapshot);
+            collectGrass();
+        }
+    }
+
+    /**
+     * Lists every grass platform in the level.
+     */
+    private void collectGrass() {
+        grassList.clear();
+        for (StaticBody body : getStaticBodies()) {
+            if (body instanceof Grass) {
+                grassList.add((Grass) body);
+            }
+        }
+    }
+
     /**
      * Removes all grass platforms from the level (for the last celebration screen after the game is won).
      */
@@ -0,0 +1,440 @@
+/**
+ * Loads the bodies of a level from a level file, so that level content can be changed without recompiling.
+ * <p>
+ * A level file declares bodies by type, position and properties. It has two forms:
+ * <ul>
+ *     <li>a text form (.lvl), with one body per line, which is easy to write and edit by hand.</li>
+ *     <li>a binary form (.lvb), which is more compact and faster to load for levels with many thousands of bodies.</li>
+ * </ul>
+ * Each line of the text form is {@code <type> <x> <y> [flags...]}, for example {@code egg -15 100 float}.
+ * Blank lines and lines starting with # are ignored. The types are:
+ * <ul>
+ *     <li>chicken: moves the level's chicken to its starting position.</li>
+ *     <li>box: a static platform, written as {@code box <x> <y> <half width> <half height> <image> <image height>}.</li>
+ *     <li>egg, queenEgg, fire, movingFire, lastMovingFire, grass, nest, door, bucket, goldEgg, fireworks: the matching game object.</li>
+ * </ul>
+ * The flags are:
+ * <ul>
+ *     <li>float: the body is not affected by gravity.</li>
+ *     <li>burnsEggs: the fire destroys eggs it touches (and, for the last moving fire, can be put out with water).</li>
+ * </ul>
+ * The binary form starts with the magic number and a version, followed by one record per body and an end marker.
+ * Each record is the type as a byte, the x and y position as floats and the flags as a byte; box records are followed
+ * by the half width and half height as floats, the image path as a UTF string and the image height as a float.
+ * <p>
+ * Files are streamed one body at a time straight into the level, and each type is created directly with no reflection.
+ * If the level streams its chunks, eggs, queen eggs and fires are handed to its ChunkStreamer instead of being created.
+ * The text form can be converted to the binary form by running this class: {@code java game.LevelLoader in.lvl out.lvb}.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+import org.jbox2d.common.Vec2;
+
+import java.io.*;
+
+public class LevelLoader {
+    /**
+     * Magic number at the start of a binary level file ("HCLV").
+     */
+    public static final int MAGIC = 0x48434C56;
+    public static final short VERSION = 1;
+
+    //body types, as stored in binary level files
+    public static final byte END = 0;
+    public static final byte CHICKEN = 1;
+    public static final byte BOX = 2;
+    public static final byte EGG = 3;
+    public static final byte QUEEN_EGG = 4;
+    public static final byte FIRE = 5;
+    public static final byte MOVING_FIRE = 6;
+    public static final byte LAST_MOVING_FIRE = 7;
+    public static final byte GRASS = 8;
+    public static final byte NEST = 9;
+    public static final byte DOOR = 10;
+    public static final byte BUCKET = 11;
+    public static final byte GOLD_EGG = 12;
+    public static final byte FIREWORKS = 13;
+
+    //flags, as stored in binary level files
+    public static final int FLOAT = 1;
+    public static final int BURNS_EGGS = 2;
+
+    private LevelLoader() {
+    }
+
+    /**
+     * Loads a level file into the given level, choosing the text or binary form from the file extension.
+     *
+     * @param level the level to add the bodies to
+     * @param game the game the level belongs to
+     * @param fileName the path of the level file
+     * @throws IOException if the file cannot be read or is not a valid level file
+     */
+    public static void load(GameLevel level, Game game, String fileName) throws IOException {
+        if (fileName.endsWith(".lvb")) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(fileName))) {
+                loadBinary(level, game, in);
+            }
+        } else {
+            try (Reader in = new FileReader(fileName)) {
+                loadText(level, game, in, fileName);
+            }
+        }
+    }
+
+    /**
+     * Loads the text form of a level file into the given level.
+     *
+     * @param level the level to add the bodies to
+     * @param game the game the level belongs to
+     * @param in the text to read
+     * @param name the name of the file, used in error messages
+     * @throws IOException if the text cannot be read or is not a valid level file
+     */
+    public static void loadText(GameLevel level, Game game, Reader in, String name) throws IOException {
+        readText(in, name, line -> {
+            if (line.type == BOX) {
+                addBox(level, line.x, line.y, line.halfWidth, line.halfHeight, line.image, line.imageHeight);
+            } else {
+                place(level, game, line.type, line.x, line.y, line.flags);
+            }
+        });
+    }
+
+    /**
+     * A body declared by one line of the text form of a level file.
+     */
+    private static class TextLine {
+        private byte type;
+        private float x;
+        private float y;
+        private int flags;
+
+        //only set for boxes
+        private float halfWidth;
+        private float halfHeight;
+        private String image;
+        private float imageHeight;
+    }
+
+    /**
+     * Handles each body read from the text form of a level file.
+     */
+    private interface TextLineHandler {
+        void handle(TextLine line) throws IOException;
+    }
+
+    /**
+     * Reads the text form of a level file, parsing each line that declares a body and passing it to the handler.
+     * The same TextLine is reused for every line.
+     */
+    private static void readText(Reader in, String name, TextLineHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        TextLine parsed = new TextLine();
+        String line;
+        int lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            try {
+                parsed.type = typeOf(parts[0]);
+                parsed.x = Float.parseFloat(parts[1]);
+                parsed.y = Float.parseFloat(parts[2]);
+                parsed.flags = 0;
+
+                if (parsed.type == BOX) {
+                    parsed.halfWidth = Float.parseFloat(parts[3]);
+                    parsed.halfHeight = Float.parseFloat(parts[4]);
+                    parsed.image = parts[5];
+                    parsed.imageHeight = Float.parseFloat(parts[6]);
+                } else {
+                    for (int i = 3; i < parts.length; i++) {
+                        parsed.flags |= flagOf(parts[i]);
+                    }
+                }
+                handler.handle(parsed);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException(name + ":" + lineNumber + ": invalid line \"" + line + "\" (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    /**
+     * Loads the binary form of a level file into the given level.
+     *
+     * @param level the level to add the bodies to
+     * @param game the game the level belongs to
+     * @param in the bytes to read
+     * @throws IOException if the bytes cannot be read or are not a valid level file
+     */
+    public static void loadBinary(GameLevel level, Game game, InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a level file");
+        }
+        short version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported level file version " + version);
+        }
+
+        byte type;
+        while ((type = data.readByte()) != END) {
+            float x = data.readFloat();
+            float y = data.readFloat();
+            int flags = data.readByte();
+
+            if (type == BOX) {
+                addBox(level, x, y, data.readFloat(), data.readFloat(), data.readUTF(), data.readFloat());
+            } else {
+                try {
+                    place(level, game, type, x, y, flags);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a body read from a level file to the level.
+     * If the level streams its chunks and the body can be streamed, it is only recorded, to be created when it is near the camera.
+     */
+    private static void place(GameLevel level, Game game, byte type, float x, float y, int flags) {
+        ChunkStreamer chunkStreamer = level.getChunkStreamer();
+        if (chunkStreamer != null && ChunkStreamer.isStreamable(type)) {
+            chunkStreamer.add(type, x, y, flags);
+        } else {
+            Body body = spawn(level, game, type, x, y, flags);
+            if (type != CHICKEN) {
+                level.addPlaced(body, flags);
+            }
+        }
+    }
+
+    /**
+     * Creates a single game object in the level.
+     *
+     * @param level the level to add the body to
+     * @param game the game the level belongs to
+     * @param type the type of body, one of the type constants other than BOX
+     * @param x the x position
+     * @param y the y position
+     * @param flags the FLOAT and BURNS_EGGS flags
+     * @return the new body, an egg or queen egg from the level's pickup pool, or the level's chicken for the CHICKEN type
+     */
+    public static Body spawn(GameLevel level, Game game, byte type, float x, float y, int flags) {
+        Body body;
+        switch (type) {
+            case CHICKEN:
+                level.setChickenStart(new Vec2(x, y));
+                body = level.getChicken();
+                break;
+            case EGG:
+            case QUEEN_EGG:
+                body = level.getPickups().obtain(type);
+                break;
+            case FIRE:
+                Fire fire = new Fire(level);
+                if ((flags & BURNS_EGGS) != 0) {
+                    fire.addCollisionListener(new FireCollisions(fire, game));
+                }
+                body = fire;
+                break;
+            case MOVING_FIRE:
+                body = new MovingFire(level);
+                break;
+            case LAST_MOVING_FIRE:
+                LastMovingFire lastMovingFire = new LastMovingFire(level);
+                if ((flags & BURNS_EGGS) != 0) {
+                    lastMovingFire.addCollisionListener(new FireCollisions(lastMovingFire, game));
+                }
+                body = lastMovingFire;
+                break;
+            case GRASS:
+                body = new Grass(level);
+                break;
+            case NEST:
+                body = new ChickenNest(level);
+                break;
+            case DOOR:
+                body = new Door(level);
+                break;
+            case BUCKET:
+                body = new WaterBucket(level);
+                break;
+            case GOLD_EGG:
+                body = new GoldEgg(level);
+                break;
+            case FIREWORKS:
+                body = new Fireworks(level);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown body type " + type);
+        }
+
+        body.setPosition(new Vec2(x, y));
+        if ((flags & FLOAT) != 0 && body instanceof DynamicBody) {
+            ((DynamicBody) body).setGravityScale(0);
+        }
+        return body;
+    }
+
+    /**
+     * Creates a static box-shaped platform with an image, such as the ground or a side border.
+     */
+    private static Platform addBox(GameLevel level, float x, float y, float halfWidth, float halfHeight, String image, float imageHeight) {
+        Platform box = new Platform(level, halfWidth, halfHeight, image, imageHeight);
+        box.setPosition(new Vec2(x, y));
+        return box;
+    }
+
+    /**
+     * Converts the name of a body type in the text form to its type constant.
+     *
+     * @param name the name of the type
+     * @return the type constant
+     */
+    public static byte typeOf(String name) {
+        switch (name) {
+            case "chicken":
+                return CHICKEN;
+            case "box":
+                return BOX;
+            case "egg":
+                return EGG;
+            case "queenEgg":
+                return QUEEN_EGG;
+            case "fire":
+                return FIRE;
+            case "movingFire":
+                return MOVING_FIRE;
+            case "lastMovingFire":
+                return LAST_MOVING_FIRE;
+            case "grass":
+                return GRASS;
+            case "nest":
+                return NEST;
+            case "door":
+                return DOOR;
+            case "bucket":
+                return BUCKET;
+            case "goldEgg":
+                return GOLD_EGG;
+            case "fireworks":
+                return FIREWORKS;
+            default:
+                throw new IllegalArgumentException("unknown body type " + name);
+        }
+    }
+
+    /**
+     * Finds the type constant of a body made by {@link #spawn}.
+     *
+     * @param body the body
+     * @return the type constant, or END for any other body, such as a box or a water projectile
+     */
+    public static byte typeOf(Body body) {
+        if (body instanceof Chicken) {
+            return CHICKEN;
+        } else if (body instanceof Egg) {
+            return EGG;
+        } else if (body instanceof QueenEgg) {
+            return QUEEN_EGG;
+        } else if (body instanceof Fire) {
+            return FIRE;
+        } else if (body instanceof MovingFire) {
+            return MOVING_FIRE;
+        } else if (body instanceof LastMovingFire) {
+            return LAST_MOVING_FIRE;
+        } else if (body instanceof Grass) {
+            return GRASS;
+        } else if (body instanceof ChickenNest) {
+            return NEST;
+        } else if (body instanceof Door) {
+            return DOOR;
+        } else if (body instanceof WaterBucket) {
+            return BUCKET;
+        } else if (body instanceof GoldEgg) {
+            return GOLD_EGG;
+        } else if (body instanceof Fireworks) {
+            return FIREWORKS;
+        }
+        return END;
+    }
+
+    /**
+     * Converts the name of a flag in the text form to its flag constant.
+     *
+     * @param name the name of the flag
+     * @return the flag constant
+     */
+    public static int flagOf(String name) {
+        switch (name) {
+            case "float":
+                return FLOAT;
+            case "burnsEggs":
+                return BURNS_EGGS;
+            default:
+                throw new IllegalArgumentException("unknown flag " + name);
+        }
+    }
+
+    /**
+     * Converts the text form of a level file to the binary form.
+     *
+     * @param textFile the path of the text level file to read
+     * @param binaryFile the path of the binary level file to write
+     * @throws IOException if a file cannot be read or written, or the text is not a valid level file
+     */
+    public static void convert(String textFile, String binaryFile) throws IOException {
+        try (Reader in = new FileReader(textFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFile)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+
+            readText(in, textFile, line -> {
+                out.writeByte(line.type);
+                out.writeFloat(line.x);
+                out.writeFloat(line.y);
+                out.writeByte(line.flags);
+
+                if (line.type == BOX) {
+                    out.writeFloat(line.halfWidth);
+                    out.writeFloat(line.halfHeight);
+                    out.writeUTF(line.image);
+                    out.writeFloat(line.imageHeight);
+                }
+            });
+            out.writeByte(END);
+        }
+    }
+
+    /**
+     * Converts a text level file to a binary level file.
+     *
+     * @param args the text file to read and the binary file to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java game.LevelLoader <level.lvl> <level.lvb>");
+            return;
+        }
+        try {
+            convert(args[0], args[1]);
+        } catch (IOException e) {
+            System.out.println("Error converting level: " + e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Builds the next level in the background while the current level is being played.
+ * <p>
+ * Building a level creates dozens of bodies and loads their images, which would otherwise happen
+ * inside the collision that takes the chicken to the next level. The preloader builds it ahead of time
+ * on a background thread, so that switching levels only has to swap the world.
+ * <p>
+ * Levels are built on a single shared daemon thread. A level built in the background is not started,
+ * so it does nothing until it is switched in and started.
+ * <p>
+ * A preloader is used from both the simulation thread, which takes the next level when the chicken reaches it,
+ * and the event dispatch thread, which starts and cancels preloading when the game is reset. The level being built
+ * is handed over with an atomic swap, so each one is either taken or cancelled, never both.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LevelPreloader {
+    /**
+     * Background thread shared by every preloader.
+     */
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-preloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The level being built in the background, or null if none has been requested.
+     */
+    private final AtomicReference<Future<GameLevel>> pending = new AtomicReference<>();
+
+    /**
+     * Time spent waiting for the last level taken from the preloader, in nanoseconds.
+     */
+    private volatile long lastWaitNanos = 0;
+
+    /**
+     * Starts building a level in the background, discarding any level that was already being built.
+     *
+     * @param builder builds the level
+     */
+    public void preload(Callable<GameLevel> builder) {
+        Future<GameLevel> previous = pending.getAndSet(executor.submit(builder));
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Discards the level being built in the background, if any.
+     */
+    public void cancel() {
+        Future<GameLevel> previous = pending.getAndSet(null);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Returns the level built in the background, waiting for it to finish if necessary.
+     * If no level was preloaded, or building it failed, the level is built on the calling thread instead.
+     *
+     * @param builder builds the level if it was not preloaded
+     * @return the built level
+     */
+    public GameLevel take(Callable<GameLevel> builder) {
+        long start = System.nanoTime();
+        GameLevel level = null;
+
+        //take the level for this thread alone, so it cannot be cancelled while it is waited for
+        Future<GameLevel> taken = pending.getAndSet(null);
+        if (taken != null) {
+            try {
+                level = taken.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.out.println("Error preloading level: " + e.getCause());
+            }
+        }
+
+        if (level == null) {
+            try {
+                level = builder.call();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not build level", e);
+            }
+        }
+
+        lastWaitNanos = System.nanoTime() - start;
+        return level;
+    }
+
+    /**
+     * Returns whether a preloaded level is ready to be taken without waiting.
+     *
+     * @return true if a level has finished building in the background
+     */
+    public boolean isReady() {
+        Future<GameLevel> next = pending.get();
+        return next != null && next.isDone();
+    }
+
+    public long getLastWaitNanos() {
+        return lastWaitNanos;
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Saves the state of a level into a compact snapshot, and puts a level back to the state in a snapshot.
+ * <p>
+ * A snapshot holds the chicken, every body placed by the level outside its ChunkStreamer, and for the streamer,
+ * which of its bodies have been destroyed or collected and the state of those that are live. Each body is stored as its
+ * position, angle and, for moving bodies, velocity and gravity, followed by how far along its path HazardMotion has moved it.
+ * Bodies are found by their index in the level rather than by any identity, so a snapshot can be restored into the level
+ * it was taken from or into another instance of the same level.
+ * <p>
+ * Restoring reuses the bodies that are already in the level: pickups are taken back out of the PickupPool, bodies that
+ * have since been destroyed are created again, and bodies that did not exist when the snapshot was taken are removed.
+ * Water projectiles are not saved; they are all returned to the level's ProjectilePool. The chicken stops walking,
+ * and is restored roasted or not, as it was when the snapshot was taken. The progress in the level's LevelState is saved with it,
+ * including the shots the chicken has used and the water hits on the last moving fire.
+ * <p>
+ * The snapshot starts with the bytes {@code HCSS}, a version byte and the level number.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.Body;
+import city.cs.engine.DynamicBody;
+import org.jbox2d.common.Vec2;
+
+import java.io.*;
+import java.util.Arrays;
+
+public class LevelSnapshot {
+    static final byte[] MAGIC = {'H', 'C', 'S', 'S'};
+    static final int VERSION = 2;
+
+    //bits of the flags byte
+    private static final int ROASTED = 1;
+    private static final int BUCKET = 2;
+    private static final int GOLD_EGG = 4;
+
+    private LevelSnapshot() {
+    }
+
+    /**
+     * Saves the state of a level. The level must not be stepping.
+     *
+     * @param level the level
+     * @return the snapshot
+     */
+    static byte[] take(GameLevel level) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(HeadlessRunner.levelNumber(level));
+
+            Chicken chicken = level.getChicken();
+            out.writeShort(chicken.getCredits());
+            int flags = 0;
+            if (chicken.roasted()) {
+                flags |= ROASTED;
+            }
+            if (level.getState().isBucketCollected()) {
+                flags |= BUCKET;
+            }
+            if (level.getState().isGoldEggCollected()) {
+                flags |= GOLD_EGG;
+            }
+            out.writeByte(flags);
+            out.writeByte(level.getState().getShotsUsed());
+            out.writeByte(level.getState().getWaterHits());
+            out.writeShort(level instanceof Level2 ? ((Level2) level).getTimeLeft() : 0);
+            writeBody(level, chicken, out);
+
+            //bodies placed outside the streamer, with enough to create them again if they have since been destroyed
+            PickupPool pickups = level.getPickups();
+            out.writeInt(level.getPlacedCount());
+            for (int i = 0; i < level.getPlacedCount(); i++) {
+                Body body = level.getPlaced(i);
+                boolean alive = body != null && (!isPickup(body) || pickups.isActive(body));
+                out.writeBoolean(alive);
+                if (alive) {
+                    out.writeByte(LevelLoader.typeOf(body));
+                    out.writeByte(level.getPlacedFlags(i));
+                    writeBody(level, body, out);
+                }
+            }
+
+            //which streamed bodies are gone for good, then the state of those that are live
+            ChunkStreamer streamer = level.getChunkStreamer();
+            if (streamer == null) {
+                out.writeInt(-1);
+            } else {
+                int records = streamer.getRecordCount();
+                out.writeInt(records);
+                byte[] consumed = new byte[(records + 7) / 8];
+                int live = 0;
+                for (int i = 0; i < records; i++) {
+                    if (streamer.isConsumed(i)) {
+                        consumed[i >> 3] |= 1 << (i & 7);
+                    }
+                    if (streamer.getBody(i) != null) {
+                        live++;
+                    }
+                }
+                out.write(consumed);
+                out.writeInt(live);
+                for (int i = 0; i < records; i++) {
+                    Body body = streamer.getBody(i);
+                    if (body != null) {
+                        out.writeInt(i);
+                        writeBody(level, body, out);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            //writing to memory cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Puts a level back to the state in a snapshot. The level must not be stepping.
+     *
+     * @param level the level
+     * @param snapshot a snapshot of this level or another instance of the same level
+     * @throws IllegalArgumentException if the snapshot is not of this kind of level
+     */
+    static void restore(GameLevel level, byte[] snapshot) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+                throw new IllegalArgumentException("not a level snapshot");
+            }
+            int levelNumber = in.readUnsignedByte();
+            if (levelNumber != HeadlessRunner.levelNumber(level)) {
+                throw new IllegalArgumentException("snapshot is of level " + levelNumber);
+            }
+
+            //finish anything left over from the last step, and take every projectile out of play
+            level.runDeferred();
+            level.getProjectiles().releaseAll();
+
+            Chicken chicken = level.getChicken();
+            chicken.stopWalking();
+            chicken.setCredits(in.readShort());
+            int flags = in.readUnsignedByte();
+            chicken.restoreRoasted((flags & ROASTED) != 0);
+            level.getState().setBucketCollected((flags & BUCKET) != 0);
+            level.getState().setGoldEggCollected((flags & GOLD_EGG) != 0);
+            level.getState().setShotsUsed(in.readUnsignedByte());
+            level.getState().setWaterHits(in.readUnsignedByte());
+            int timeLeft = in.readShort();
+            if (level instanceof Level2) {
+                ((Level2) level).setTimeLeft(timeLeft);
+            }
+            readBody(level, chicken, in);
+
+            restorePlaced(level, in);
+
+            ChunkStreamer streamer = level.getChunkStreamer();
+            int records = in.readInt();
+            if (records >= 0) {
+                if (streamer == null || records != streamer.getRecordCount()) {
+                    throw new IllegalArgumentException("snapshot does not match the level's streamed bodies");
+                }
+                byte[] bits = new byte[(records + 7) / 8];
+                in.readFully(bits);
+                boolean[] consumed = new boolean[records];
+                for (int i = 0; i < records; i++) {
+                    consumed[i] = (bits[i >> 3] & (1 << (i & 7))) != 0;
+                }
+                //the chicken is already back where it was, so the same chunks are created as were live
+                streamer.restore(consumed);
+
+                int live = in.readInt();
+                for (int i = 0; i < live; i++) {
+                    int index = in.readInt();
+                    readBody(level, index < records ? streamer.getBody(index) : null, in);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("level snapshot is cut short");
+        } catch (IOException e) {
+            //reading from memory cannot fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Restores the bodies placed outside the streamer, creating those that have been destroyed
+     * and removing those that did not exist when the snapshot was taken.
+     */
+    private static void restorePlaced(GameLevel level, DataInputStream in) throws IOException {
+        PickupPool pickups = level.getPickups();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Body body = i < level.getPlacedCount() ? level.getPlaced(i) : null;
+            if (!in.readBoolean()) {
+                remove(level, body);
+                continue;
+            }
+            byte type = in.readByte();
+            int flags = in.readByte();
+            if (body == null) {
+                body = LevelLoader.spawn(level, level.getGame(), type, 0, 0, flags);
+                level.setPlaced(i, body, flags);
+            } else if (isPickup(body)) {
+                pickups.reactivate(body);
+            }
+            readBody(level, body, in);
+        }
+        for (int i = count; i < level.getPlacedCount(); i++) {
+            remove(level, level.getPlaced(i));
+        }
+        level.truncatePlaced(count);
+    }
+
+    /**
+     * Takes a placed body out of the level, parking it if it is a pickup.
+     */
+    private static void remove(GameLevel level, Body body) {
+        if (body == null) {
+            return;
+        }
+        if (isPickup(body)) {
+            level.getPickups().release(body);
+        } else {
+            body.destroy();
+        }
+    }
+
+    private static boolean isPickup(Body body) {
+        return body instanceof Egg || body instanceof QueenEgg;
+    }
+
+    private static void writeBody(GameLevel level, Body body, DataOutputStream out) throws IOException {
+        Vec2 position = body.getPosition();
+        out.writeFloat(position.x);
+        out.writeFloat(position.y);
+        out.writeFloat(body.getAngle());
+        boolean dynamic = body instanceof DynamicBody;
+        out.writeBoolean(dynamic);
+        if (dynamic) {
+            DynamicBody dynamicBody = (DynamicBody) body;
+            Vec2 velocity = dynamicBody.getLinearVelocity();
+            out.writeFloat(velocity.x);
+            out.writeFloat(velocity.y);
+            out.writeFloat(dynamicBody.getAngularVelocity());
+            out.writeFloat(dynamicBody.getGravityScale());
+        }
+        level.getHazardMotion().save(body, out);
+    }
+
+    /**
+     * Reads a body written by writeBody, applying it to the given body, or skipping it if the body is null.
+     */
+    private static void readBody(GameLevel level, Body body, DataInputStream in) throws IOException {
+        float x = in.readFloat();
+        float y = in.readFloat();
+        float angle = in.readFloat();
+        float vx = 0;
+        float vy = 0;
+        float angularVelocity = 0;
+        float gravityScale = 1;
+        boolean dynamic = in.readBoolean();
+        if (dynamic) {
+            vx = in.readFloat();
+            vy = in.readFloat();
+            angularVelocity = in.readFloat();
+            gravityScale = in.readFloat();
+        }
+
+        if (body != null) {
+            body.setPosition(new Vec2(x, y));
+            body.setAngle(angle);
+            if (body instanceof DynamicBody) {
+                DynamicBody dynamicBody = (DynamicBody) body;
+                dynamicBody.setLinearVelocity(new Vec2(vx, vy));
+                dynamicBody.setAngularVelocity(angularVelocity);
+                dynamicBody.setGravityScale(gravityScale);
+            }
+        }
+        level.getHazardMotion().load(body, in);
+    }
+}
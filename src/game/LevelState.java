@@ -0,0 +1,68 @@
+/**
+ * Holds the progress of a single run of a level that is not kept in its bodies, such as whether the water bucket has been collected
+ * and how many times the chicken has shot water.
+ * <p>
+ * Each GameLevel owns its own state, created with the level, so any number of levels can be built and stepped
+ * at once in the same program, such as parallel headless runs, without one level's progress leaking into another.
+ * A newly built level always starts with nothing collected.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+public class LevelState {
+    /**
+     * Whether the chicken has collected the water bucket, which lets it shoot water and sets the last moving fire drifting.
+     */
+    private boolean bucketCollected = false;
+
+    /**
+     * Whether the chicken has collected the golden egg, which wins the game.
+     */
+    private boolean goldEggCollected = false;
+
+    /**
+     * Number of water projectiles the chicken has shot, up to ChickenController.MAX_SHOTS.
+     */
+    private int shotsUsed = 0;
+
+    /**
+     * Number of times the last moving fire has been hit by water. It is put out on the third hit.
+     */
+    private int waterHits = 0;
+
+    public boolean isBucketCollected() {
+        return bucketCollected;
+    }
+
+    public void setBucketCollected(boolean bucketCollected) {
+        this.bucketCollected = bucketCollected;
+    }
+
+    public boolean isGoldEggCollected() {
+        return goldEggCollected;
+    }
+
+    public void setGoldEggCollected(boolean goldEggCollected) {
+        this.goldEggCollected = goldEggCollected;
+    }
+
+    public int getShotsUsed() {
+        return shotsUsed;
+    }
+
+    public void setShotsUsed(int shotsUsed) {
+        this.shotsUsed = shotsUsed;
+    }
+
+    public int getWaterHits() {
+        return waterHits;
+    }
+
+    public void setWaterHits(int waterHits) {
+        this.waterHits = waterHits;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * A piece of music, streamed from disk through the current AudioBackend.
+ * <p>
+ * The file is decoded ahead of the mixer by a background decoder thread into a ring buffer of RING_FRAMES frames,
+ * so the heap used is the same however long the music is, and the mixer thread never waits for the disk.
+ * The decoder tops the buffer up whenever the mixer has played a buffer's worth from it.
+ * Looping music is reopened by the decoder when it reaches the end of the file.
+ * <p>
+ * A track can be prefetched before it is played, so that it starts at once. Stopping a track keeps its place,
+ * so playing it again carries on from where it stopped. A closed track stops decoding, but the mixer can still play out
+ * what is left in its buffer, which is what lets the old level's music fade out under the new one.
+ * Tracks from backends that play nothing are never decoded.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MusicTrack {
+    /**
+     * Number of frames decoded ahead of the mixer (about one and a half seconds), which is more than a crossfade needs.
+     */
+    public static final int RING_FRAMES = AudioMixer.BUFFER_FRAMES * 128;
+
+    /**
+     * The one thread that decodes every music track.
+     */
+    private static final ExecutorService decoder = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "music-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String fileName;
+
+    /**
+     * Whether the music is decoded at all.
+     */
+    private final boolean streamed;
+
+    //written by the decoder thread and read by the mixer thread
+    private final short[] ring = new short[RING_FRAMES * 2];
+    private volatile long written = 0;
+    private volatile long consumed = 0;
+
+    //used only by the decoder thread
+    private final short[] chunk = new short[AudioMixer.BUFFER_FRAMES * 2];
+    private PcmReader reader;
+
+    private volatile boolean looping = true;
+    private volatile boolean ended = false;
+    private volatile boolean closed = false;
+    private final AtomicBoolean filling = new AtomicBoolean();
+
+    /**
+     * Constructs a music track for the given file. Nothing is read until it is prefetched or played.
+     *
+     * @param fileName the path of the music file
+     * @param streamed whether the music is decoded for the backend to play, which is false for a backend that plays nothing
+     */
+    public MusicTrack(String fileName, boolean streamed) {
+        this.fileName = fileName;
+        this.streamed = streamed;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Starts decoding the beginning of the music in the background, so it is ready to play at once.
+     */
+    public void prefetch() {
+        requestFill();
+    }
+
+    /**
+     * Plays the music over and over until it is stopped, fading it in over any music already playing.
+     */
+    public void loop() {
+        looping = true;
+        requestFill();
+        Sounds.getBackend().setMusic(this);
+    }
+
+    /**
+     * Plays the music to the end of the file, fading it in over any music already playing.
+     */
+    public void play() {
+        looping = false;
+        requestFill();
+        Sounds.getBackend().setMusic(this);
+    }
+
+    /**
+     * Fades the music out. Playing it again carries on from where it stopped.
+     */
+    public void stop() {
+        Sounds.getBackend().stopMusic(this);
+    }
+
+    /**
+     * Fades the music out and stops decoding it, closing the file.
+     */
+    public void close() {
+        closed = true;
+        Sounds.getBackend().stopMusic(this);
+        if (streamed) {
+            decoder.execute(this::fill);
+        }
+    }
+
+    /**
+     * Returns how many frames are decoded and waiting to be played.
+     *
+     * @return the number of frames in the ring buffer
+     */
+    public int getBufferedFrames() {
+        return (int) (written - consumed);
+    }
+
+    /**
+     * Takes the next decoded frames of the music, called by the mixer thread. This never waits for the decoder.
+     *
+     * @param out the array to store interleaved stereo samples in
+     * @param frames the number of frames to take
+     * @return the number of frames taken, which is less than asked for if the decoder has fallen behind or the music has finished
+     */
+    public int read(short[] out, int frames) {
+        long from = consumed;
+        int count = (int) Math.min(frames, written - from);
+        for (int i = 0; i < count; i++) {
+            int at = (int) ((from + i) % RING_FRAMES) * 2;
+            out[i * 2] = ring[at];
+            out[i * 2 + 1] = ring[at + 1];
+        }
+        consumed = from + count;
+        requestFill();
+        return count;
+    }
+
+    /**
+     * Asks the decoder to top up the ring buffer, unless it is already doing so.
+     */
+    private void requestFill() {
+        if (streamed && !closed && !ended && RING_FRAMES - getBufferedFrames() >= AudioMixer.BUFFER_FRAMES
+                && filling.compareAndSet(false, true)) {
+            decoder.execute(this::fill);
+        }
+    }
+
+    /**
+     * Decodes frames into the ring buffer until it is full, run on the decoder thread.
+     */
+    private void fill() {
+        try {
+            boolean reopened = false;
+            while (!closed && !ended && RING_FRAMES - getBufferedFrames() >= AudioMixer.BUFFER_FRAMES) {
+                if (reader == null) {
+                    reader = new PcmReader(fileName);
+                }
+
+                int count = reader.read(chunk, 0, AudioMixer.BUFFER_FRAMES);
+                if (count == 0) {
+                    closeReader();
+                    //stop at the end unless looping, or if the file turns out to be empty
+                    if (!looping || reopened) {
+                        ended = true;
+                    }
+                    reopened = true;
+                    continue;
+                }
+                reopened = false;
+
+                long to = written;
+                for (int i = 0; i < count; i++) {
+                    int at = (int) ((to + i) % RING_FRAMES) * 2;
+                    ring[at] = chunk[i * 2];
+                    ring[at + 1] = chunk[i * 2 + 1];
+                }
+                written = to + count;
+            }
+        } catch (IOException | UnsupportedAudioFileException e) {
+            System.out.println("Error streaming music: " + e);
+            ended = true;
+        } finally {
+            if (closed) {
+                closeReader();
+            }
+            filling.set(false);
+        }
+    }
+
+    private void closeReader() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                System.out.println("Error closing music: " + e);
+            }
+            reader = null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * An audio backend that plays nothing.
+ * <p>
+ * Sound effects are not decoded and music is not streamed, so loading and playing sounds costs next to nothing.
+ * This is the backend used when no sound device can be opened, for headless runs, and when sound is switched off
+ * with {@code -Dgame.noAudio=true}.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+public class NullAudio implements AudioBackend {
+    @Override
+    public SoundEffect load(String fileName) {
+        return new SoundEffect(fileName, new short[0]);
+    }
+
+    @Override
+    public MusicTrack music(String fileName) {
+        return new MusicTrack(fileName, false);
+    }
+
+    @Override
+    public void play(SoundEffect effect, boolean loop) {
+    }
+
+    @Override
+    public void stop(SoundEffect effect) {
+    }
+
+    @Override
+    public void setMusic(MusicTrack track) {
+    }
+
+    @Override
+    public void stopMusic(MusicTrack track) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * Runs many independent headless levels at once, spread across the CPU cores on a fork-join pool.
+ * <p>
+ * Each world is its own Game and GameLevel, driven by its own HeadlessRunner, so worlds share nothing but the read-only
+ * images and sounds. Every world is fed either its own copy of an input script, or random key presses made from its own seed,
+ * so a run can be repeated exactly. Every step of every world is timed, and at the end the runner reports the steps per second
+ * of all worlds together, percentiles of the time taken by a single step and by a whole world, and for each starting level,
+ * how often the chicken was roasted or reached the end.
+ * <p>
+ * This is used for balance testing, such as how often random input is roasted in Level3, and to see how the collision
+ * handling and step listeners scale as more cores are used. It can be run from the command line:
+ * <pre>
+ * java -Djava.awt.headless=true game.ParallelRunner [worlds] [level] [steps] [threads] [script file]
+ * </pre>
+ * A level of 0 spreads the worlds evenly over the three levels. Adding {@code -Dgame.seed=<number>} changes the seeds
+ * the random input is made from.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class ParallelRunner {
+    /**
+     * Keys held down by the random input to walk the chicken.
+     */
+    private static final int[] WALK_KEYS = {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT};
+
+    /**
+     * Keys tapped by the random input, to jump or shoot.
+     */
+    private static final int[] TAP_KEYS = {KeyEvent.VK_SPACE, KeyEvent.VK_SHIFT};
+
+    /**
+     * The outcome of running a single world.
+     */
+    public static class Result {
+        private final int startLevel;
+        private final long[] stepNanos;
+        private final long elapsedNanos;
+        private final boolean roasted;
+        private final boolean won;
+        private final int eggs;
+
+        private Result(int startLevel, long[] stepNanos, long elapsedNanos, boolean roasted, boolean won, int eggs) {
+            this.startLevel = startLevel;
+            this.stepNanos = stepNanos;
+            this.elapsedNanos = elapsedNanos;
+            this.roasted = roasted;
+            this.won = won;
+            this.eggs = eggs;
+        }
+
+        public int getStartLevel() {
+            return startLevel;
+        }
+
+        public int getSteps() {
+            return stepNanos.length;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public boolean isRoasted() {
+            return roasted;
+        }
+
+        public boolean isWon() {
+            return won;
+        }
+
+        public int getEggs() {
+            return eggs;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a runner that steps worlds on the given number of threads.
+     *
+     * @param threads the number of worlds stepped at once
+     */
+    public ParallelRunner(int threads) {
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Runs one world for each input script, each until it has taken the given number of steps or is finished,
+     * and waits for every world to finish.
+     *
+     * @param levels the level each world starts in (1, 2 or 3)
+     * @param scripts the input for each world, which is not shared with any other world
+     * @param maxSteps the maximum number of steps each world takes
+     * @return the result of each world, or null for a world that failed
+     */
+    public Result[] run(int[] levels, InputScript[] scripts, int maxSteps) {
+        List<Callable<Result>> worlds = new ArrayList<>(levels.length);
+        for (int i = 0; i < levels.length; i++) {
+            int level = levels[i];
+            InputScript script = scripts[i];
+            worlds.add(() -> runWorld(level, script, maxSteps));
+        }
+
+        Result[] results = new Result[levels.length];
+        List<Future<Result>> futures = pool.invokeAll(worlds);
+        for (int i = 0; i < results.length; i++) {
+            try {
+                results[i] = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                System.out.println("Error running world " + i + ": " + e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stops the threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Builds a level and steps it on the calling thread, timing every step.
+     */
+    private static Result runWorld(int levelNumber, InputScript script, int maxSteps) {
+        long start = System.nanoTime();
+        HeadlessRunner runner = new HeadlessRunner(levelNumber, script);
+        long[] stepNanos = new long[maxSteps];
+        int taken = 0;
+        while (taken < maxSteps && !runner.isFinished()) {
+            long stepStart = System.nanoTime();
+            runner.step();
+            stepNanos[taken++] = System.nanoTime() - stepStart;
+        }
+
+        GameLevel level = runner.getLevel();
+        boolean won = level instanceof Level3 && level.isComplete();
+        return new Result(levelNumber, Arrays.copyOf(stepNanos, taken), System.nanoTime() - start,
+                level.isGameOver(), won, level.getChicken().getCredits());
+    }
+
+    /**
+     * Makes random input: the chicken walks one way or the other for a while, sometimes jumping or shooting as it sets off.
+     *
+     * @param seed the seed of the random numbers, so that the same seed always makes the same input
+     * @param steps the number of steps to make input for
+     * @return the script
+     */
+    public static InputScript randomScript(long seed, long steps) {
+        Random random = new Random(seed);
+        InputScript script = new InputScript();
+        long step = 0;
+        while (step < steps) {
+            int walkKey = WALK_KEYS[random.nextInt(WALK_KEYS.length)];
+            long hold = 10 + random.nextInt(50);
+            script.add(step, walkKey, true);
+            if (random.nextInt(3) == 0) {
+                int tapKey = TAP_KEYS[random.nextInt(TAP_KEYS.length)];
+                script.add(step, tapKey, true);
+                script.add(step + 1, tapKey, false);
+            }
+            script.add(step + hold, walkKey, false);
+            step += hold + random.nextInt(10);
+        }
+        return script;
+    }
+
+    /**
+     * Makes a copy of a script that can be played separately from the original.
+     *
+     * @param script the script
+     * @return the copy, rewound to its start
+     */
+    public static InputScript copyOf(InputScript script) {
+        InputScript copy = new InputScript();
+        copy.setLevel(script.getLevel());
+        for (int i = 0; i < script.size(); i++) {
+            copy.add(script.getStep(i), script.getKeyCode(i), script.isPressed(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Finds a percentile of some sorted values.
+     *
+     * @param sorted the values, in ascending order
+     * @param percent the percentile, from 0 to 100
+     * @return the value at that percentile, or 0 if there are no values
+     */
+    static long percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Runs many worlds in parallel and reports their speed and outcomes.
+     *
+     * @param args optional number of worlds (default 200), level (default 0 for all three), number of steps per world (default 3000),
+     *             number of threads (default one per core) and input script file (default random input for each world)
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int worlds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int levelNumber = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        int maxSteps = args.length > 2 ? Integer.parseInt(args[2]) : 3000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        InputScript script = null;
+        if (args.length > 4) {
+            try {
+                script = InputScript.load(args[4]);
+            } catch (IOException e) {
+                System.out.println("Error loading input script: " + e);
+                return;
+            }
+        }
+        long seed = Long.getLong("game.seed", 1);
+
+        //choose the audio backend once, before any world loads its sounds
+        Sounds.setBackend(new NullAudio());
+
+        int[] levels = new int[worlds];
+        InputScript[] scripts = new InputScript[worlds];
+        for (int i = 0; i < worlds; i++) {
+            levels[i] = levelNumber > 0 ? levelNumber : i % 3 + 1;
+            scripts[i] = script != null ? copyOf(script) : randomScript(seed + i, maxSteps);
+        }
+
+        ParallelRunner runner = new ParallelRunner(threads);
+        long start = System.nanoTime();
+        Result[] results = runner.run(levels, scripts, maxSteps);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        runner.shutdown();
+
+        long totalSteps = 0;
+        int finished = 0;
+        long[] worldNanos = new long[worlds];
+        for (Result result : results) {
+            if (result != null) {
+                totalSteps += result.getSteps();
+                worldNanos[finished++] = result.getElapsedNanos();
+            }
+        }
+        long[] stepNanos = new long[(int) totalSteps];
+        int next = 0;
+        for (Result result : results) {
+            if (result != null) {
+                System.arraycopy(result.stepNanos, 0, stepNanos, next, result.stepNanos.length);
+                next += result.stepNanos.length;
+            }
+        }
+        Arrays.sort(stepNanos);
+        worldNanos = Arrays.copyOf(worldNanos, finished);
+        Arrays.sort(worldNanos);
+
+        System.out.println("Worlds: " + finished + " of " + worlds + " on " + threads + " threads");
+        System.out.printf("Steps: %d in %.2f s (%.1f steps/second across all worlds)%n", totalSteps, seconds, totalSteps / seconds);
+        System.out.printf("Step time: p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us%n",
+                percentile(stepNanos, 50) / 1e3, percentile(stepNanos, 90) / 1e3,
+                percentile(stepNanos, 99) / 1e3, percentile(stepNanos, 100) / 1e3);
+        System.out.printf("World time: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                percentile(worldNanos, 50) / 1e6, percentile(worldNanos, 90) / 1e6,
+                percentile(worldNanos, 99) / 1e6, percentile(worldNanos, 100) / 1e6);
+
+        for (int level = 1; level <= 3; level++) {
+            int count = 0;
+            int roasted = 0;
+            int won = 0;
+            long eggs = 0;
+            for (Result result : results) {
+                if (result != null && result.getStartLevel() == level) {
+                    count++;
+                    roasted += result.isRoasted() ? 1 : 0;
+                    won += result.isWon() ? 1 : 0;
+                    eggs += result.getEggs();
+                }
+            }
+            if (count > 0) {
+                System.out.printf("Level%d: %d worlds, %d roasted (%.1f%%), %d won, %.1f eggs on average%n",
+                        level, count, roasted, roasted * 100.0 / count, won, (double) eggs / count);
+            }
+        }
+    }
+}
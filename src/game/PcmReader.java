@@ -0,0 +1,176 @@
+/**
+ * Reads a sound file as 16-bit stereo samples at the mixer's sample rate, converting it as it goes.
+ * <p>
+ * The file is first decoded to 16-bit samples at its own rate by the Java sound system. Mono files are copied to both
+ * channels, and files at another rate (such as yay.wav, at 24000 Hz) are resampled by linear interpolation.
+ * The file is read a small buffer at a time, so a long file never has to be held in memory.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.*;
+import java.util.Arrays;
+
+public class PcmReader implements Closeable {
+    /**
+     * Number of source frames read from the file at a time.
+     */
+    private static final int READ_FRAMES = 2048;
+
+    private final AudioInputStream in;
+    private final int channels;
+
+    /**
+     * Source frames to move forward for each output frame.
+     */
+    private final double step;
+
+    private final byte[] bytes;
+
+    /**
+     * Decoded source frames, as interleaved stereo samples.
+     */
+    private final short[] source;
+    private int sourceFrames = 0;
+
+    /**
+     * Position of the next output frame, in source frames.
+     */
+    private double position = 0;
+
+    private boolean ended = false;
+
+    /**
+     * Opens a sound file for reading.
+     *
+     * @param fileName the path of the sound file
+     * @throws IOException if the file cannot be read
+     * @throws UnsupportedAudioFileException if the file is not a supported sound format
+     */
+    public PcmReader(String fileName) throws IOException, UnsupportedAudioFileException {
+        AudioInputStream raw = AudioSystem.getAudioInputStream(new BufferedInputStream(new FileInputStream(fileName)));
+        AudioFormat format = raw.getFormat();
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        in = format.matches(pcm) ? raw : AudioSystem.getAudioInputStream(pcm, raw);
+
+        channels = format.getChannels();
+        step = format.getSampleRate() / AudioMixer.SAMPLE_RATE;
+        bytes = new byte[READ_FRAMES * channels * 2];
+        //one extra frame is kept from the previous read to interpolate from
+        source = new short[(READ_FRAMES + 1) * 2];
+    }
+
+    /**
+     * Decodes a whole sound file into memory.
+     *
+     * @param fileName the path of the sound file
+     * @return the file as interleaved 16-bit stereo samples at the mixer's sample rate
+     * @throws IOException if the file cannot be read
+     * @throws UnsupportedAudioFileException if the file is not a supported sound format
+     */
+    public static short[] decode(String fileName) throws IOException, UnsupportedAudioFileException {
+        try (PcmReader reader = new PcmReader(fileName)) {
+            short[] samples = new short[AudioMixer.BUFFER_FRAMES * 2 * 16];
+            int frames = 0;
+            int read;
+            while (true) {
+                if ((frames + AudioMixer.BUFFER_FRAMES) * 2 > samples.length) {
+                    samples = Arrays.copyOf(samples, samples.length * 2);
+                }
+                read = reader.read(samples, frames, AudioMixer.BUFFER_FRAMES);
+                if (read <= 0) {
+                    break;
+                }
+                frames += read;
+            }
+            return Arrays.copyOf(samples, frames * 2);
+        }
+    }
+
+    /**
+     * Reads frames of converted samples.
+     *
+     * @param out the array to store interleaved stereo samples in
+     * @param offset the frame of out to start at
+     * @param frames the number of frames to read
+     * @return the number of frames read, which is less than asked for only at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public int read(short[] out, int offset, int frames) throws IOException {
+        int read = 0;
+        while (read < frames) {
+            int index = (int) position;
+            if (index + 1 >= sourceFrames) {
+                if (!fill()) {
+                    break;
+                }
+                continue;
+            }
+
+            float fraction = (float) (position - index);
+            int from = index * 2;
+            int to = (offset + read) * 2;
+            out[to] = (short) (source[from] + (source[from + 2] - source[from]) * fraction);
+            out[to + 1] = (short) (source[from + 1] + (source[from + 3] - source[from + 1]) * fraction);
+
+            read++;
+            position += step;
+        }
+        return read;
+    }
+
+    /**
+     * Reads the next source frames from the file, keeping the last frame read before.
+     *
+     * @return false if the end of the file has been reached
+     */
+    private boolean fill() throws IOException {
+        if (ended) {
+            return false;
+        }
+
+        //keep the last frame to interpolate from
+        if (sourceFrames > 0) {
+            source[0] = source[(sourceFrames - 1) * 2];
+            source[1] = source[(sourceFrames - 1) * 2 + 1];
+            position -= sourceFrames - 1;
+            sourceFrames = 1;
+        }
+
+        int count = 0;
+        while (count < bytes.length) {
+            int n = in.read(bytes, count, bytes.length - count);
+            if (n < 0) {
+                ended = true;
+                break;
+            }
+            count += n;
+        }
+
+        int frameBytes = channels * 2;
+        int frames = count / frameBytes;
+        for (int i = 0; i < frames; i++) {
+            int b = i * frameBytes;
+            short left = (short) ((bytes[b] & 0xFF) | (bytes[b + 1] << 8));
+            short right = channels > 1 ? (short) ((bytes[b + 2] & 0xFF) | (bytes[b + 3] << 8)) : left;
+            source[(sourceFrames + i) * 2] = left;
+            source[(sourceFrames + i) * 2 + 1] = right;
+        }
+        sourceFrames += frames;
+        return frames > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
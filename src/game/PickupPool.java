@@ -0,0 +1,213 @@
+/**
+ * A pool of the Egg and QueenEgg pickups in a level, so that collected pickups are reused rather than destroyed.
+ * <p>
+ * When a pickup is collected (or burnt by a fire), it is not destroyed from inside the collision.
+ * Instead it is marked as collected straight away, so a second contact in the same step does not count it twice,
+ * and the level parks it after the step: it is hidden and moved far outside the level and held still.
+ * Parked pickups are handed out again the next time an egg or queen egg is needed, for example when a chunk
+ * comes back into view or the level is reset, instead of creating a new body.
+ * <p>
+ * Eggs and queen eggs that were created directly, rather than taken from the pool, are destroyed after the step instead.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+import org.jbox2d.common.Vec2;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class PickupPool {
+    /**
+     * Where parked pickups are kept, well outside every level. Each pickup has its own spot so they never touch.
+     */
+    private static final float PARK_X = 10000f;
+    private static final float PARK_Y = 10000f;
+    private static final float PARK_SPACING = 10f;
+
+    private final GameLevel level;
+
+    private final ArrayDeque<Egg> freeEggs = new ArrayDeque<>();
+    private final ArrayDeque<QueenEgg> freeQueenEggs = new ArrayDeque<>();
+
+    /**
+     * The parking spot of every pickup created by the pool.
+     */
+    private final Map<Body, Integer> parkingSpots = new IdentityHashMap<>();
+
+    /**
+     * Pickups currently in play.
+     */
+    private final Set<Body> active = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private int created = 0;
+    private int reused = 0;
+
+    /**
+     * Where a pickup is parked, reused for every pickup.
+     */
+    private final Vec2 parkPosition = new Vec2();
+
+    /**
+     * Velocity of a parked pickup. The engine copies it, so it is shared by every pickup.
+     */
+    private static final Vec2 STILL = new Vec2(0, 0);
+
+    /**
+     * Constructs a pickup pool for the given level.
+     *
+     * @param level the level the pickups belong to
+     */
+    public PickupPool(GameLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Takes a pickup of the given type from the pool, creating one if none are parked.
+     * The pickup is shown, still, and affected by gravity; the caller places it.
+     *
+     * @param type LevelLoader.EGG or LevelLoader.QUEEN_EGG
+     * @return the pickup
+     */
+    public DynamicBody obtain(byte type) {
+        DynamicBody pickup;
+        if (type == LevelLoader.EGG) {
+            Egg egg = freeEggs.poll();
+            if (egg == null) {
+                egg = new Egg(level);
+            } else {
+                egg.setShown(true);
+                reused++;
+            }
+            pickup = egg;
+        } else if (type == LevelLoader.QUEEN_EGG) {
+            QueenEgg queenEgg = freeQueenEggs.poll();
+            if (queenEgg == null) {
+                queenEgg = new QueenEgg(level);
+            } else {
+                queenEgg.setShown(true);
+                reused++;
+            }
+            pickup = queenEgg;
+        } else {
+            throw new IllegalArgumentException("not a pickup type " + type);
+        }
+
+        if (!parkingSpots.containsKey(pickup)) {
+            parkingSpots.put(pickup, created++);
+        }
+        pickup.setGravityScale(1);
+        active.add(pickup);
+        return pickup;
+    }
+
+    /**
+     * Collects a pickup. It is taken out of play straight away and parked (or destroyed, if it is not from the pool) after the step.
+     *
+     * @param pickup the egg or queen egg that was collected
+     * @return true if the pickup was in play, false if it had already been collected
+     */
+    public boolean collect(Body pickup) {
+        if (!parkingSpots.containsKey(pickup)) {
+            //not from the pool, so destroy it as before
+            return level.destroyAfterStep(pickup);
+        }
+        if (!active.remove(pickup)) {
+            return false;
+        }
+
+        level.defer(() -> park(pickup));
+        //a streamed pickup must not be created again when its chunk returns
+        if (level.getChunkStreamer() != null) {
+            level.getChunkStreamer().collected(pickup);
+        }
+        return true;
+    }
+
+    /**
+     * Takes a pickup out of play immediately and parks it, without counting it as collected.
+     *
+     * @param pickup the egg or queen egg to park
+     */
+    public void release(Body pickup) {
+        if (active.remove(pickup)) {
+            park(pickup);
+        }
+    }
+
+    /**
+     * Takes a parked pickup back into play where it was parked, for example when a level snapshot from before it was collected is restored.
+     * The pickup is shown and affected by gravity; the caller places it.
+     *
+     * @param pickup the egg or queen egg to take back into play
+     */
+    public void reactivate(Body pickup) {
+        if (!parkingSpots.containsKey(pickup) || !active.add(pickup)) {
+            return;
+        }
+        if (pickup instanceof Egg) {
+            freeEggs.remove(pickup);
+            ((Egg) pickup).setShown(true);
+        } else {
+            freeQueenEggs.remove(pickup);
+            ((QueenEgg) pickup).setShown(true);
+        }
+        ((DynamicBody) pickup).setGravityScale(1);
+    }
+
+    /**
+     * Parks every pickup that is still in play.
+     */
+    public void releaseAll() {
+        for (Body pickup : active.toArray(new Body[0])) {
+            release(pickup);
+        }
+    }
+
+    /**
+     * Hides a pickup and holds it still in its parking spot, ready to be reused.
+     */
+    private void park(Body pickup) {
+        DynamicBody body = (DynamicBody) pickup;
+        int spot = parkingSpots.get(pickup);
+
+        body.setGravityScale(0);
+        body.setLinearVelocity(STILL);
+        body.setAngularVelocity(0);
+        body.setAngle(0);
+        parkPosition.set(PARK_X + spot * PARK_SPACING, PARK_Y);
+        body.setPosition(parkPosition);
+
+        if (body instanceof Egg) {
+            ((Egg) body).setShown(false);
+            freeEggs.push((Egg) body);
+        } else {
+            ((QueenEgg) body).setShown(false);
+            freeQueenEggs.push((QueenEgg) body);
+        }
+    }
+
+    public boolean isActive(Body pickup) {
+        return active.contains(pickup);
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getReused() {
+        return reused;
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+}
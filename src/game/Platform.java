@@ -0,0 +1,50 @@
+/**
+ * Represents a static box-shaped platform with its own image, such as the ground or a side border of a level.
+ * <p>
+ * Platforms are created by the LevelLoader from the boxes in a level file. Their images are far larger than the sprites
+ * the view culls, so a platform is never culled and is drawn over the culled sprites.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+
+public class Platform extends StaticBody implements Sprite {
+    private final SpriteAtlas.Region image;
+    private final float imageHeight;
+
+    /**
+     * Constructs a new Platform in the specified world.
+     *
+     * @param world the game world where the platform will be placed
+     * @param halfWidth half the width of the platform, in metres
+     * @param halfHeight half the height of the platform, in metres
+     * @param imageFile the path of the platform's image
+     * @param imageHeight the height the image is drawn at, in metres
+     */
+    public Platform(World world, float halfWidth, float halfHeight, String imageFile, float imageHeight) {
+        super(world, new BoxShape(halfWidth, halfHeight));
+        this.image = SpriteAtlas.image(imageFile);
+        this.imageHeight = imageHeight;
+        SpriteIndex.register(world, this);
+    }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return imageHeight;
+    }
+
+    @Override
+    public boolean isCulled() {
+        return false;
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * A fixed-size pool of the water projectiles in a level.
+ * <p>
+ * Projectiles are created the first time they are needed, up to the pool's capacity, and then reused for every later shot.
+ * A projectile is taken out of play and parked, well outside the level, when it:
+ * <ul>
+ *     <li>hits a fire (recycled from FireCollisions, after the step).</li>
+ *     <li>has been in flight for longer than its lifetime.</li>
+ *     <li>has left the area around the chicken, and so can no longer be seen.</li>
+ * </ul>
+ * If every projectile is in flight when another shot is fired, one that is waiting to be parked is reused, and its parking
+ * is called off; otherwise the oldest one in flight is reused. So the number of projectile bodies in the world never grows
+ * beyond the capacity however many shots are allowed.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+import org.jbox2d.common.Vec2;
+
+public class ProjectilePool implements StepListener {
+    /**
+     * Default number of projectiles in a level's pool.
+     */
+    public static final int CAPACITY = 8;
+
+    /**
+     * Number of steps a projectile stays in flight before it is parked (three seconds at 60 steps per second).
+     */
+    public static final int LIFETIME_STEPS = 180;
+
+    /**
+     * Distance from the chicken, horizontally or vertically, beyond which a projectile is off screen.
+     * The camera follows the chicken and the view is 30 metres across, so this leaves room to spare.
+     */
+    public static final float CULL_DISTANCE = 20f;
+
+    /**
+     * Where parked projectiles are kept, well outside every level and away from parked pickups.
+     */
+    private static final float PARK_X = -10000f;
+    private static final float PARK_Y = 10000f;
+    private static final float PARK_SPACING = 10f;
+
+    //states of each slot in the pool
+    private static final byte FREE = 0;
+    private static final byte ACTIVE = 1;
+    private static final byte PARKING = 2;
+
+    private final GameLevel level;
+
+    private final WaterProjectile[] projectiles;
+    private final byte[] states;
+
+    /**
+     * Number of steps each projectile has been in flight.
+     */
+    private final int[] ages;
+
+    private int launched = 0;
+    private int culled = 0;
+
+    /**
+     * Where a projectile is parked, reused for every projectile.
+     */
+    private final Vec2 parkPosition = new Vec2();
+
+    /**
+     * Constructs a projectile pool for the given level.
+     *
+     * @param level the level the projectiles belong to
+     * @param capacity the maximum number of projectiles in the level
+     */
+    public ProjectilePool(GameLevel level, int capacity) {
+        this.level = level;
+        projectiles = new WaterProjectile[capacity];
+        states = new byte[capacity];
+        ages = new int[capacity];
+    }
+
+    /**
+     * Fires a projectile from the pool.
+     *
+     * @param position the starting position of the projectile
+     * @param direction the direction in which the projectile should move
+     * @return the projectile that was fired
+     */
+    public WaterProjectile launch(Vec2 position, Vec2 direction) {
+        int slot = -1;
+        int parking = -1;
+        int oldest = -1;
+        for (int i = 0; i < projectiles.length; i++) {
+            if (states[i] == FREE) {
+                slot = i;
+                break;
+            }
+            if (states[i] == PARKING) {
+                parking = i;
+            } else if (oldest < 0 || ages[i] > ages[oldest]) {
+                oldest = i;
+            }
+        }
+        if (slot < 0) {
+            //no projectile is free, so reuse one that is about to be parked, or else the oldest one in flight;
+            //a projectile waiting to be parked is no longer PARKING once launched, so its deferred park does nothing
+            slot = parking >= 0 ? parking : oldest;
+        }
+
+        if (projectiles[slot] == null) {
+            projectiles[slot] = new WaterProjectile(level, slot);
+        }
+        WaterProjectile projectile = projectiles[slot];
+        projectile.launch(position, direction);
+        states[slot] = ACTIVE;
+        ages[slot] = 0;
+        launched++;
+        return projectile;
+    }
+
+    /**
+     * Takes a projectile out of play straight away and parks it after the step.
+     * Projectiles that are not from this pool are destroyed after the step instead.
+     *
+     * @param projectile the projectile to recycle
+     * @return true if the projectile was in play, false if it had already been recycled
+     */
+    public boolean recycle(Body projectile) {
+        int slot = slotOf(projectile);
+        if (slot < 0) {
+            return level.destroyAfterStep(projectile);
+        }
+        if (states[slot] != ACTIVE) {
+            return false;
+        }
+        states[slot] = PARKING;
+        level.defer(() -> {
+            //unless it has been launched again since
+            if (states[slot] == PARKING) {
+                park(slot);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Parks every projectile that is in flight.
+     */
+    public void releaseAll() {
+        for (int i = 0; i < projectiles.length; i++) {
+            if (states[i] != FREE) {
+                park(i);
+            }
+        }
+    }
+
+    private int slotOf(Body body) {
+        if (body instanceof WaterProjectile) {
+            int slot = ((WaterProjectile) body).getSlot();
+            if (slot >= 0 && slot < projectiles.length && projectiles[slot] == body) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void park(int slot) {
+        parkPosition.set(PARK_X - slot * PARK_SPACING, PARK_Y);
+        projectiles[slot].park(parkPosition);
+        states[slot] = FREE;
+    }
+
+    public int getCapacity() {
+        return projectiles.length;
+    }
+
+    public int getLaunched() {
+        return launched;
+    }
+
+    public int getCulled() {
+        return culled;
+    }
+
+    public int getActiveCount() {
+        int active = 0;
+        for (byte state : states) {
+            if (state == ACTIVE) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Not used but required by StepListener.
+     */
+    @Override
+    public void preStep(StepEvent stepEvent) {
+    }
+
+    /**
+     * Ages every projectile in flight, and parks those that have outlived their lifetime or left the screen.
+     *
+     * @param stepEvent the event fired after each simulation step
+     */
+    @Override
+    public void postStep(StepEvent stepEvent) {
+        Vec2 centre = null;
+        for (int i = 0; i < projectiles.length; i++) {
+            if (states[i] != ACTIVE) {
+                continue;
+            }
+            if (centre == null) {
+                centre = level.getChicken().getPosition();
+            }
+
+            Vec2 position = projectiles[i].getPosition();
+            if (++ages[i] > LIFETIME_STEPS
+                    || Math.abs(position.x - centre.x) > CULL_DISTANCE
+                    || Math.abs(position.y - centre.y) > CULL_DISTANCE) {
+                park(i);
+                culled++;
+            }
+        }
+    }
+}
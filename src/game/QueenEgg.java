@@ -13,33 +13,34 @@ package game;
 
 import city.cs.engine.*;
 
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
-import java.io.IOException;
-
-public class QueenEgg extends DynamicBody {
+public class QueenEgg extends DynamicBody implements Sprite {
     private static final Shape queenShape = new PolygonShape(-0.99f,-0.09f, -1.01f,-1.89f, 0.93f,-1.93f, 1.01f,-0.27f, 0.28f,1.9f, -0.28f,1.93f);
 
-    private static final BodyImage image = new BodyImage("data/queenEgg.png", 4f);
+    static final SpriteAtlas.Region image = SpriteAtlas.region("data/queenEgg.png");
+    static final float IMAGE_HEIGHT = 4f;
 
     public QueenEgg(World world) {
         super(world, queenShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
     }
 
-    private static SoundClip yay;
+    /**
+     * Whether the queen egg is drawn. It is hidden while it is parked in the PickupPool.
+     */
+    private boolean shown = true;
+
+    public void setShown(boolean shown) {
+        this.shown = shown;
+    }
+
+    private static SoundEffect yay;
 
     /**
-     * Static block to preload sound clip for "yay" sound effect.
+     * Static block to preload sound effect for "yay" sound effect.
      * This block is executed once when the class is first loaded.
      */
     static {
-        try {
-            yay = new SoundClip("data/yay.wav");
-            System.out.println("Loading yay sound");
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.out.println(e);
-        }
+        yay = Sounds.load("data/yay.wav");
     }
 
     /**
@@ -52,4 +53,19 @@ public class QueenEgg extends DynamicBody {
             yay.play();
         }
     }
+
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
+    }
+
+    @Override
+    public boolean isShown() {
+        return shown;
+    }
 }
@@ -0,0 +1,134 @@
+/**
+ * An audio backend that plays nothing, but records every sound that is asked for and when.
+ * <p>
+ * Like NullAudio, sound files are not decoded, so a run is not slowed down. Each request is kept as an Event,
+ * so that a headless run can check, for example, that a chirp was played for every egg collected.
+ * Times come from the given clock, which can be the step count of a headless run to make them repeatable,
+ * or are otherwise nanoseconds since the recording started.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+public class RecordingAudio extends NullAudio {
+    /**
+     * The kinds of request that are recorded.
+     */
+    public enum Kind { PLAY, LOOP, STOP, MUSIC, STOP_MUSIC }
+
+    /**
+     * A sound that was asked for.
+     */
+    public static class Event {
+        private final Kind kind;
+        private final String fileName;
+        private final long time;
+
+        private Event(Kind kind, String fileName, long time) {
+            this.kind = kind;
+            this.fileName = fileName;
+            this.time = time;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return time + " " + kind + " " + fileName;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final List<Event> events = new ArrayList<>();
+
+    /**
+     * Constructs a recorder that times requests in nanoseconds since it was created.
+     */
+    public RecordingAudio() {
+        long start = System.nanoTime();
+        clock = () -> System.nanoTime() - start;
+    }
+
+    /**
+     * Constructs a recorder that times requests with the given clock.
+     *
+     * @param clock the clock, such as the step count of a HeadlessRunner
+     */
+    public RecordingAudio(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void play(SoundEffect effect, boolean loop) {
+        record(loop ? Kind.LOOP : Kind.PLAY, effect.getFileName());
+    }
+
+    @Override
+    public void stop(SoundEffect effect) {
+        record(Kind.STOP, effect.getFileName());
+    }
+
+    @Override
+    public void setMusic(MusicTrack track) {
+        record(Kind.MUSIC, track != null ? track.getFileName() : null);
+    }
+
+    @Override
+    public void stopMusic(MusicTrack track) {
+        record(Kind.STOP_MUSIC, track.getFileName());
+    }
+
+    private synchronized void record(Kind kind, String fileName) {
+        events.add(new Event(kind, fileName, clock.getAsLong()));
+    }
+
+    /**
+     * Returns the requests recorded so far, oldest first.
+     *
+     * @return a copy of the recorded events
+     */
+    public synchronized List<Event> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Counts the recorded requests of a kind for a sound file.
+     *
+     * @param kind the kind of request
+     * @param fileName the path of the sound file
+     * @return the number of matching events
+     */
+    public synchronized int count(Kind kind, String fileName) {
+        int count = 0;
+        for (Event event : events) {
+            if (event.kind == kind && fileName.equals(event.fileName)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forgets every request recorded so far.
+     */
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,480 @@
+/**
+ * Runs the physics of a level on its own thread, at a fixed rate of 60 steps per second.
+ * <p>
+ * The loop keeps track of how much time has passed and runs as many steps as are due, so the simulation keeps to
+ * real time even if a step is held up, for example while the view is painting a slow frame.
+ * After a long stall it only catches up a few steps at once, so it does not spend seconds stepping to make up for it.
+ * <p>
+ * After each step the loop records a snapshot of what the view draws: where the chicken was before and after the step,
+ * and the image, position and angle of every sprite in the area the view shows, and of every sprite that is not culled,
+ * before and after the step. The view paints from the latest snapshot alone, without waiting for the simulation or touching the world,
+ * and interpolates between the two transforms, so the camera and every body move smoothly on displays that refresh faster than the physics steps.
+ * <p>
+ * Snapshots are triple buffered, so taking one does not create any objects once its arrays are large enough.
+ * One snapshot is written, one is held by the view, and the third is the latest one written, which the two swap for their own;
+ * a snapshot is never written while the view holds it.
+ * <p>
+ * Each step, and the snapshot taken after it, runs while holding the level's step lock, so a snapshot never shows a world
+ * that is halfway through a step. Anything else that changes the world from another thread holds the same lock, but only briefly;
+ * nothing holds it while calling into Swing, as the event dispatch thread may be waiting for it.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.Body;
+import org.jbox2d.common.Vec2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+public class SimulationLoop implements Runnable {
+    /**
+     * Number of physics steps per second.
+     */
+    public static final int STEPS_PER_SECOND = 60;
+    public static final long STEP_NANOS = 1_000_000_000L / STEPS_PER_SECOND;
+
+    /**
+     * Most steps run at once to catch up after a stall.
+     */
+    private static final int MAX_CATCH_UP_STEPS = 5;
+
+    /**
+     * Number of values stored for each sprite: its x, y and angle before the step, then after it.
+     */
+    private static final int SPRITE_VALUES = 6;
+
+    /**
+     * Where the chicken and the drawn sprites were before and after a step, and when the step finished.
+     * A snapshot is only written by the loop while no other thread can see it, and is then handed over whole.
+     */
+    public static final class Snapshot {
+        /**
+         * Counts the snapshots taken, so the view can tell a newer snapshot from the one it holds; 0 if never written.
+         */
+        private volatile long sequence;
+
+        private float previousX;
+        private float previousY;
+        private float x;
+        private float y;
+        private long stepNanos;
+
+        private SpriteAtlas.Region[] regions = new SpriteAtlas.Region[0];
+        private float[] heights = new float[0];
+        private float[] transforms = new float[0];
+        private int count;
+        private int indexed;
+
+        private Snapshot() {
+        }
+
+        /**
+         * Makes sure the arrays can hold the given number of sprites, keeping the ones already in them.
+         */
+        private void ensureCapacity(int sprites) {
+            if (sprites > regions.length) {
+                int capacity = Math.max(sprites, regions.length * 2);
+                regions = Arrays.copyOf(regions, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+                transforms = Arrays.copyOf(transforms, capacity * SPRITE_VALUES);
+            }
+        }
+
+        /**
+         * Works out how far the given time is between the step before this one and this step.
+         *
+         * @param nowNanos the current time, from System.nanoTime()
+         * @return 0 for the transforms before the step, up to 1 for those after it
+         */
+        public float alpha(long nowNanos) {
+            float alpha = (float) (nowNanos - stepNanos) / STEP_NANOS;
+            if (alpha < 0) {
+                return 0;
+            } else if (alpha > 1) {
+                return 1;
+            }
+            return alpha;
+        }
+
+        /**
+         * Works out where the chicken is shown at the given time, between its positions before and after the step.
+         *
+         * @param nowNanos the current time, from System.nanoTime()
+         * @param out where to store the interpolated position
+         * @return out
+         */
+        public Vec2 interpolate(long nowNanos, Vec2 out) {
+            float alpha = alpha(nowNanos);
+            out.set(previousX + (x - previousX) * alpha, previousY + (y - previousY) * alpha);
+            return out;
+        }
+
+        /**
+         * Returns the number of sprites captured, culled sprites first, in the order they are drawn.
+         *
+         * @return the number of sprites
+         */
+        public int getSpriteCount() {
+            return count;
+        }
+
+        /**
+         * Returns the number of sprites in the level's SpriteIndex when the snapshot was taken, whether captured or not.
+         *
+         * @return the number of sprites
+         */
+        public int getIndexedCount() {
+            return indexed;
+        }
+
+        public SpriteAtlas.Region getRegion(int sprite) {
+            return regions[sprite];
+        }
+
+        public float getHeight(int sprite) {
+            return heights[sprite];
+        }
+
+        /**
+         * Works out where a sprite is shown, between its positions before and after the step.
+         *
+         * @param sprite the index of the sprite in the snapshot
+         * @param alpha how far between the two positions, from {@link #alpha(long)}
+         * @param out where to store the interpolated position
+         * @return out
+         */
+        public Vec2 getPosition(int sprite, float alpha, Vec2 out) {
+            int i = sprite * SPRITE_VALUES;
+            out.set(transforms[i] + (transforms[i + 3] - transforms[i]) * alpha,
+                    transforms[i + 1] + (transforms[i + 4] - transforms[i + 1]) * alpha);
+            return out;
+        }
+
+        /**
+         * Works out the angle a sprite is shown at, between its angles before and after the step.
+         * A sprite that turned more than half a turn, which is only possible if it was set to a new angle, is shown at its new angle.
+         *
+         * @param sprite the index of the sprite in the snapshot
+         * @param alpha how far between the two angles, from {@link #alpha(long)}
+         * @return the angle, in radians
+         */
+        public float getAngle(int sprite, float alpha) {
+            int i = sprite * SPRITE_VALUES;
+            float turn = transforms[i + 5] - transforms[i + 2];
+            if (Math.abs(turn) > Math.PI) {
+                return transforms[i + 5];
+            }
+            return transforms[i + 2] + turn * alpha;
+        }
+    }
+
+    /**
+     * An empty area, so only the sprites that are not culled are captured until the view says what it shows.
+     */
+    private static final float[] NO_AREA = {0, 0, -1, -1};
+
+    private final GameLevel level;
+
+    /**
+     * The latest snapshot written, waiting to be swapped for the view's or the loop's own.
+     */
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>(new Snapshot());
+
+    /**
+     * The snapshot the view is drawing from. Only used by the view, on the event dispatch thread.
+     */
+    private Snapshot front = new Snapshot();
+
+    /**
+     * The snapshot the next capture writes, and the one it wrote last, which sprites are interpolated from.
+     * These are only used while holding the step lock.
+     */
+    private Snapshot back = new Snapshot();
+    private Snapshot written;
+
+    private volatile boolean running = false;
+
+    /**
+     * The area of the world the view shows, as left, bottom, right and top edges, never changed once set.
+     */
+    private volatile float[] area = NO_AREA;
+
+    /**
+     * Sprites found by the last capture, and the index of each in its snapshot, so the next capture can interpolate from them.
+     * These are only used while holding the step lock.
+     */
+    private final List<Body> found = new ArrayList<>();
+    private BodyIndexes lastIndexes = new BodyIndexes();
+    private BodyIndexes nextIndexes = new BodyIndexes();
+
+    /**
+     * Increased each time the loop is started or stopped, so a thread from an earlier start knows to finish.
+     */
+    private volatile int generation = 0;
+
+    /**
+     * Steps taken, written by the simulation thread and read by the view.
+     */
+    private volatile long steps = 0;
+
+    /**
+     * Constructs a simulation loop for the given level.
+     *
+     * @param level the level to step
+     */
+    public SimulationLoop(GameLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Starts stepping the level on a new thread, if it is not already running.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        generation++;
+
+        Thread thread = new Thread(this, "simulation-" + level.getClass().getSimpleName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops stepping the level. This can be called from the simulation thread itself, such as from a collision
+     * handler; the step that is running finishes, and no more are run.
+     */
+    public synchronized void stop() {
+        running = false;
+        generation++;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the latest snapshot of what the view draws, or null if none has been taken yet.
+     * This must only be called by the view, on the event dispatch thread. The snapshot returned is only read until
+     * the next call, which may hand it back to the loop to write again.
+     *
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot() {
+        if (latest.get().sequence > front.sequence) {
+            front = latest.getAndSet(front);
+        }
+        return front.sequence == 0 ? null : front;
+    }
+
+    /**
+     * Sets the area of the world the view shows. Snapshots taken from the next step on capture the culled sprites within it.
+     * The area is only published again if it has changed, so a view that keeps its area steady sets it without allocating.
+     *
+     * @param minX the left edge of the area
+     * @param minY the bottom edge of the area
+     * @param maxX the right edge of the area
+     * @param maxY the top edge of the area
+     */
+    public void setArea(float minX, float minY, float maxX, float maxY) {
+        float[] current = area;
+        if (current[0] == minX && current[1] == minY && current[2] == maxX && current[3] == maxY) {
+            return;
+        }
+        area = new float[] {minX, minY, maxX, maxY};
+    }
+
+    /**
+     * Takes a snapshot of the level as it is now, with nothing moving, while holding the step lock.
+     * The view calls this when the level is not stepping, so it still has an up-to-date snapshot to draw.
+     */
+    public void capture() {
+        synchronized (level.getStepLock()) {
+            Vec2 position = level.getChicken().getPosition();
+            capture(position.x, position.y, System.nanoTime(), false);
+        }
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Steps the level at the fixed rate until the loop is stopped.
+     */
+    @Override
+    public void run() {
+        int myGeneration = generation;
+        long nextStep = System.nanoTime();
+
+        while (generation == myGeneration) {
+            long now = System.nanoTime();
+            int due = 0;
+            while (now - nextStep >= 0 && due < MAX_CATCH_UP_STEPS) {
+                due++;
+                nextStep += STEP_NANOS;
+            }
+            if (now - nextStep >= 0) {
+                //too far behind to catch up, so carry on from now
+                nextStep = now + STEP_NANOS;
+            }
+
+            for (int i = 0; i < due; i++) {
+                synchronized (level.getStepLock()) {
+                    //stop straight away if the level was stopped during the last step
+                    if (generation != myGeneration) {
+                        return;
+                    }
+                    Vec2 before = level.getChicken().getPosition();
+                    level.oneStep();
+                    capture(before.x, before.y, System.nanoTime(), true);
+                    steps++;
+                }
+            }
+
+            LockSupport.parkNanos(nextStep - System.nanoTime());
+        }
+    }
+
+    /**
+     * Records a snapshot of the chicken and the sprites to draw. Must be called while holding the step lock.
+     *
+     * @param beforeX where the chicken was before the step
+     * @param beforeY where the chicken was before the step
+     * @param nowNanos when the step finished
+     * @param stepped whether a step was taken since the last snapshot, so sprites move from where they were in it
+     */
+    private void capture(float beforeX, float beforeY, long nowNanos, boolean stepped) {
+        float[] bounds = area;
+        SpriteIndex sprites = level.getSprites();
+        found.clear();
+        sprites.query(bounds[0], bounds[1], bounds[2], bounds[3], found);
+
+        Snapshot last = written;
+        Snapshot next = back;
+        next.ensureCapacity(found.size());
+        int count = 0;
+        for (int i = 0; i < found.size(); i++) {
+            Body body = found.get(i);
+            Sprite sprite = (Sprite) body;
+            SpriteAtlas.Region region = sprite.getSpriteRegion();
+            if (!sprite.isShown() || region == null) {
+                continue;
+            }
+
+            Vec2 position = body.getPosition();
+            float[] transforms = next.transforms;
+            int at = count * SPRITE_VALUES;
+            transforms[at + 3] = position.x;
+            transforms[at + 4] = position.y;
+            transforms[at + 5] = body.getAngle();
+
+            //start from where the sprite was in the last snapshot, or where it is now if it was not in it
+            int lastIndex = stepped && last != null ? lastIndexes.get(body) : -1;
+            if (lastIndex >= 0) {
+                System.arraycopy(last.transforms, lastIndex * SPRITE_VALUES + 3, transforms, at, 3);
+            } else {
+                System.arraycopy(transforms, at + 3, transforms, at, 3);
+            }
+
+            next.regions[count] = region;
+            next.heights[count] = sprite.getSpriteHeight();
+            nextIndexes.put(body, count);
+            count++;
+        }
+        //let go of sprites from earlier snapshots that are no longer drawn
+        Arrays.fill(next.regions, count, Math.max(count, next.count), null);
+
+        BodyIndexes swap = lastIndexes;
+        lastIndexes = nextIndexes;
+        nextIndexes = swap;
+        nextIndexes.clear();
+        found.clear();
+
+        Vec2 after = level.getChicken().getPosition();
+        next.previousX = beforeX;
+        next.previousY = beforeY;
+        next.x = after.x;
+        next.y = after.y;
+        next.stepNanos = nowNanos;
+        next.count = count;
+        next.indexed = sprites.size();
+        next.sequence = (last != null ? last.sequence : 0) + 1;
+
+        //hand the snapshot over whole, and take whichever snapshot was waiting to write the next one into
+        written = next;
+        back = latest.getAndSet(next);
+    }
+
+    /**
+     * The index of each sprite in a snapshot, kept in arrays that are reused from one capture to the next
+     * rather than in a map, which would box every index. Bodies are compared by identity.
+     */
+    private static final class BodyIndexes {
+        private Body[] bodies = new Body[64];
+        private int[] indexes = new int[64];
+        private int size = 0;
+
+        /**
+         * Returns the index stored for the body.
+         *
+         * @param body the body to look for
+         * @return its index, or -1 if none is stored
+         */
+        private int get(Body body) {
+            int mask = bodies.length - 1;
+            for (int slot = System.identityHashCode(body) & mask; bodies[slot] != null; slot = (slot + 1) & mask) {
+                if (bodies[slot] == body) {
+                    return indexes[slot];
+                }
+            }
+            return -1;
+        }
+
+        private void put(Body body, int index) {
+            if ((size + 1) * 2 > bodies.length) {
+                grow();
+            }
+            int mask = bodies.length - 1;
+            int slot = System.identityHashCode(body) & mask;
+            while (bodies[slot] != null && bodies[slot] != body) {
+                slot = (slot + 1) & mask;
+            }
+            if (bodies[slot] == null) {
+                size++;
+            }
+            bodies[slot] = body;
+            indexes[slot] = index;
+        }
+
+        private void clear() {
+            Arrays.fill(bodies, null);
+            size = 0;
+        }
+
+        /**
+         * Doubles the number of slots, so at most half of them are ever used.
+         */
+        private void grow() {
+            Body[] oldBodies = bodies;
+            int[] oldIndexes = indexes;
+            bodies = new Body[oldBodies.length * 2];
+            indexes = new int[oldBodies.length * 2];
+            size = 0;
+            for (int i = 0; i < oldBodies.length; i++) {
+                if (oldBodies[i] != null) {
+                    put(oldBodies[i], oldIndexes[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * A sound effect, decoded into memory once and played through the current AudioBackend.
+ * <p>
+ * With the AudioMixer, the same sound effect can be played several times at once, each on its own voice of the mixer.
+ * Backends that play nothing leave the samples empty.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+public class SoundEffect {
+    private final String fileName;
+    private final short[] samples;
+
+    /**
+     * Constructs a sound effect from decoded samples.
+     *
+     * @param fileName the path of the sound file the samples came from
+     * @param samples interleaved 16-bit stereo samples at the mixer's sample rate
+     */
+    public SoundEffect(String fileName, short[] samples) {
+        this.fileName = fileName;
+        this.samples = samples;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public short[] getSamples() {
+        return samples;
+    }
+
+    /**
+     * Plays the sound effect once.
+     */
+    public void play() {
+        Sounds.getBackend().play(this, false);
+    }
+
+    /**
+     * Plays the sound effect over and over until it is stopped.
+     */
+    public void loop() {
+        Sounds.getBackend().play(this, true);
+    }
+
+    /**
+     * Stops every playing copy of the sound effect.
+     */
+    public void stop() {
+        Sounds.getBackend().stop(this);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Loads the sound effects and music used by the game.
+ * <p>
+ * All sound effects and music are loaded through this class and played through one AudioBackend, so where sound goes
+ * can be chosen as a whole. By default this is an AudioMixer playing on the sound device, opened when the first sound is loaded.
+ * If no sound device can be opened, or sound is disabled from the command line with {@code -Dgame.noAudio=true},
+ * NullAudio is used instead. Headless runs use NullAudio, or RecordingAudio to check which sounds were asked for.
+ * <p>
+ * Sound effects are loaded once and shared, so loading the same file twice returns the same SoundEffect.
+ * The backend should be chosen before the Chicken, Egg and QueenEgg classes are first loaded, as they load their sound effects once.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class Sounds {
+    private static AudioBackend backend;
+    private static final Map<String, SoundEffect> effects = new HashMap<>();
+
+    private Sounds() {
+    }
+
+    /**
+     * Returns the backend that sounds are played through, opening the default backend if none has been chosen.
+     *
+     * @return the audio backend
+     */
+    public static synchronized AudioBackend getBackend() {
+        if (backend == null) {
+            backend = openDefaultBackend();
+        }
+        return backend;
+    }
+
+    /**
+     * Chooses the backend that sounds are played through, closing the previous one.
+     *
+     * @param audio the audio backend
+     */
+    public static synchronized void setBackend(AudioBackend audio) {
+        if (backend != null && backend != audio) {
+            backend.close();
+        }
+        backend = audio;
+        effects.clear();
+    }
+
+    /**
+     * Checks whether a backend has been chosen or opened yet.
+     *
+     * @return true if there is a backend
+     */
+    public static synchronized boolean hasBackend() {
+        return backend != null;
+    }
+
+    /**
+     * Loads a sound effect from the given file, or returns it if it has been loaded already.
+     *
+     * @param fileName the path of the sound file
+     * @return the loaded sound effect, or null if the file could not be loaded
+     */
+    public static synchronized SoundEffect load(String fileName) {
+        SoundEffect effect = effects.get(fileName);
+        if (effect != null) {
+            return effect;
+        }
+
+        try {
+            effect = getBackend().load(fileName);
+            effects.put(fileName, effect);
+            System.out.println("Loading " + fileName);
+            return effect;
+        } catch (UnsupportedAudioFileException | IOException e) {
+            System.out.println(e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets music from the given file, to be streamed while it plays.
+     *
+     * @param fileName the path of the music file
+     * @return the music, or null if the file does not exist
+     */
+    public static synchronized MusicTrack music(String fileName) {
+        if (!new File(fileName).isFile()) {
+            System.out.println("Error loading music: " + fileName + " not found");
+            return null;
+        }
+        return getBackend().music(fileName);
+    }
+
+    /**
+     * Opens the AudioMixer, or NullAudio if sound is disabled or no sound device can be opened.
+     *
+     * @return the default audio backend
+     */
+    private static AudioBackend openDefaultBackend() {
+        if (Boolean.getBoolean("game.noAudio")) {
+            return new NullAudio();
+        }
+        try {
+            return new AudioMixer();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.out.println("Error opening audio: " + e);
+            return new NullAudio();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * A body that is drawn by the GameView itself, rather than through an image attached to the body.
+ * <p>
+ * Every body with an image is a sprite, so the view can draw a frame from a snapshot of the sprites without touching the world.
+ * Most sprites are the bodies that a level has many of, such as eggs, fires and grass; only those within the view are drawn.
+ * The few others, such as the chicken and the platforms, are not culled and are drawn over them.
+ * The image is a region of the SpriteAtlas, or the whole of an image of its own, drawn centred on the body, at the given height in metres and turned with the body, as a BodyImage would be.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+public interface Sprite {
+    /**
+     * Returns the region of the sprite atlas to draw for the body.
+     *
+     * @return the region, or null if there is no image to draw
+     */
+    SpriteAtlas.Region getSpriteRegion();
+
+    /**
+     * Returns the height the image is drawn at.
+     *
+     * @return the height, in metres
+     */
+    float getSpriteHeight();
+
+    /**
+     * Returns whether the body should be drawn at all, for example false while a pickup is parked in its pool.
+     *
+     * @return true if the body is drawn
+     */
+    default boolean isShown() {
+        return true;
+    }
+
+    /**
+     * Returns whether the sprite is only drawn when its centre is near the view. Sprites larger than the margin around the view,
+     * such as the platforms, and the few that are nearly always in view, such as the chicken, return false and are always drawn.
+     *
+     * @return true if the sprite can be culled
+     */
+    default boolean isCulled() {
+        return true;
+    }
+}
@@ -0,0 +1,355 @@
+/**
+ * Packs the still images of the game objects that the view draws as sprites into a single atlas image.
+ * <p>
+ * Each source image is scaled down, if needed, to no more than MAX_REGION_HEIGHT pixels high (larger than any sprite
+ * is drawn at the default zoom) and packed into rows of the atlas. The atlas is written to data/atlas/sprites.png,
+ * with an index, data/atlas/sprites.idx, giving the region of the atlas that holds each source image.
+ * <p>
+ * The first time the game runs, or whenever a source image is newer than the atlas, the atlas is packed again.
+ * Otherwise the atlas and its index are read back, so starting the game decodes one image instead of one per object.
+ * If the atlas cannot be written, the packed atlas is still used for this run.
+ * The atlas can also be packed ahead of time by running this class: {@code java game.SpriteAtlas}.
+ * <p>
+ * Animated images (the chicken and fireworks GIFs), the platforms and the backgrounds are not packed. Those drawn as sprites use a region
+ * covering the whole of their own image instead, from {@link #image(String)}.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.io.*;
+import java.util.*;
+import java.util.List;
+
+public class SpriteAtlas {
+    /**
+     * Images packed into the atlas.
+     */
+    public static final String[] SOURCES = {
+            "data/egg.png", "data/queenEgg.png", "data/fire.png", "data/grass.png",
+            "data/chickenNest.png", "data/door.png", "data/goldEgg.png", "data/waterBucket.png"
+    };
+
+    public static final String ATLAS_IMAGE = "data/atlas/sprites.png";
+    public static final String ATLAS_INDEX = "data/atlas/sprites.idx";
+
+    /**
+     * Width of the atlas, in pixels.
+     */
+    public static final int ATLAS_WIDTH = 1024;
+
+    /**
+     * Largest height of a region, in pixels. Taller source images are scaled down to this height.
+     */
+    public static final int MAX_REGION_HEIGHT = 256;
+
+    /**
+     * Empty pixels left around each region, so that scaled drawing does not pick up the edges of its neighbours.
+     */
+    private static final int PADDING = 2;
+
+    /**
+     * A rectangle of the atlas holding one source image.
+     */
+    public static final class Region {
+        private final Image atlas;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        private Region(Image atlas, int x, int y, int width, int height) {
+            this.atlas = atlas;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Draws the region scaled to the given rectangle.
+         *
+         * @param g the graphics context to draw on
+         * @param dx the left edge of the rectangle
+         * @param dy the top edge of the rectangle
+         * @param dw the width of the rectangle
+         * @param dh the height of the rectangle
+         * @param observer the observer to notify about the image
+         */
+        public void draw(Graphics2D g, int dx, int dy, int dw, int dh, ImageObserver observer) {
+            g.drawImage(atlas, dx, dy, dx + dw, dy + dh, x, y, x + width, y + height, observer);
+        }
+    }
+
+    private static Image atlas;
+    private static final Map<String, Region> regions = new HashMap<>();
+    private static boolean loaded = false;
+
+    private SpriteAtlas() {
+    }
+
+    /**
+     * Returns the region of the atlas holding the given source image, loading or packing the atlas the first time.
+     *
+     * @param fileName the path of the source image, one of SOURCES
+     * @return the region, or null if the image could not be packed
+     */
+    public static synchronized Region region(String fileName) {
+        load();
+        return regions.get(fileName);
+    }
+
+    /**
+     * Returns a region covering the whole of an image that is not packed into the atlas, such as an animated GIF.
+     *
+     * @param fileName the path of the image
+     * @return the region, or null if the image could not be read
+     */
+    public static Region image(String fileName) {
+        Image image = AssetCache.getImage(fileName);
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        if (width <= 0 || height <= 0) {
+            System.out.println("Error reading sprite image: " + fileName);
+            return null;
+        }
+        return new Region(image, 0, 0, width, height);
+    }
+
+    /**
+     * Reads the atlas, or packs it again if it is missing or older than its source images.
+     */
+    public static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        long start = System.nanoTime();
+        try {
+            if (isUpToDate()) {
+                read();
+                if (Game.LOGGING) {
+                    System.out.printf("Loaded sprite atlas with %d regions in %.2f ms%n", regions.size(), (System.nanoTime() - start) / 1e6);
+                }
+                return;
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading sprite atlas, packing it again: " + e);
+            regions.clear();
+        }
+
+        pack();
+        if (Game.LOGGING) {
+            System.out.printf("Packed sprite atlas with %d regions in %.2f ms%n", regions.size(), (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    public static synchronized int getRegionCount() {
+        return regions.size();
+    }
+
+    /**
+     * Checks whether the atlas exists and is newer than every source image.
+     */
+    private static boolean isUpToDate() {
+        File image = new File(ATLAS_IMAGE);
+        File index = new File(ATLAS_INDEX);
+        if (!image.isFile() || !index.isFile()) {
+            return false;
+        }
+        long packed = Math.min(image.lastModified(), index.lastModified());
+        for (String source : SOURCES) {
+            if (new File(source).lastModified() > packed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the atlas image and its index.
+     */
+    private static void read() throws IOException {
+        BufferedImage image = ImageIO.read(new File(ATLAS_IMAGE));
+        if (image == null) {
+            throw new IOException("Not an image: " + ATLAS_IMAGE);
+        }
+        atlas = toCompatible(image);
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(ATLAS_INDEX))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                try {
+                    regions.put(parts[0], new Region(atlas, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                            Integer.parseInt(parts[3]), Integer.parseInt(parts[4])));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException(ATLAS_INDEX + ": invalid line \"" + line + "\"");
+                }
+            }
+        }
+
+        for (String source : SOURCES) {
+            if (!regions.containsKey(source)) {
+                throw new IOException(ATLAS_INDEX + ": no region for " + source);
+            }
+        }
+    }
+
+    /**
+     * Packs every source image into a new atlas, in rows from the tallest image down, and writes it with its index.
+     */
+    private static void pack() {
+        //load and scale every source image
+        Map<String, BufferedImage> images = new LinkedHashMap<>();
+        for (String source : SOURCES) {
+            try {
+                BufferedImage image = ImageIO.read(new File(source));
+                if (image == null) {
+                    System.out.println("Error packing " + source + ": not an image");
+                    continue;
+                }
+                images.put(source, fit(image));
+            } catch (IOException e) {
+                System.out.println("Error packing " + source + ": " + e);
+            }
+        }
+
+        //place the images in rows, tallest first, so each row wastes little height
+        List<String> order = new ArrayList<>(images.keySet());
+        order.sort((a, b) -> images.get(b).getHeight() - images.get(a).getHeight());
+
+        Map<String, Rectangle> placed = new LinkedHashMap<>();
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (String source : order) {
+            BufferedImage image = images.get(source);
+            if (x + image.getWidth() + PADDING > ATLAS_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            placed.put(source, new Rectangle(x + PADDING, y + PADDING, image.getWidth(), image.getHeight()));
+            x += image.getWidth() + PADDING * 2;
+            rowHeight = Math.max(rowHeight, image.getHeight() + PADDING * 2);
+        }
+
+        BufferedImage packed = new BufferedImage(ATLAS_WIDTH, Math.max(1, y + rowHeight), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = packed.createGraphics();
+        try {
+            for (Map.Entry<String, Rectangle> entry : placed.entrySet()) {
+                Rectangle r = entry.getValue();
+                g.drawImage(images.get(entry.getKey()), r.x, r.y, null);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        atlas = toCompatible(packed);
+        for (Map.Entry<String, Rectangle> entry : placed.entrySet()) {
+            Rectangle r = entry.getValue();
+            regions.put(entry.getKey(), new Region(atlas, r.x, r.y, r.width, r.height));
+        }
+
+        try {
+            write(packed, placed);
+        } catch (IOException e) {
+            System.out.println("Error writing sprite atlas: " + e);
+        }
+    }
+
+    /**
+     * Scales an image down to MAX_REGION_HEIGHT pixels high if it is taller.
+     */
+    private static BufferedImage fit(BufferedImage image) {
+        if (image.getHeight() <= MAX_REGION_HEIGHT && image.getWidth() <= ATLAS_WIDTH - PADDING * 2) {
+            return image;
+        }
+        double scale = Math.min((double) MAX_REGION_HEIGHT / image.getHeight(), (double) (ATLAS_WIDTH - PADDING * 2) / image.getWidth());
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Writes the atlas image and its index.
+     */
+    private static void write(BufferedImage packed, Map<String, Rectangle> placed) throws IOException {
+        File image = new File(ATLAS_IMAGE);
+        File directory = image.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        ImageIO.write(packed, "png", image);
+        try (PrintWriter out = new PrintWriter(new FileWriter(ATLAS_INDEX))) {
+            out.println("# source x y width height");
+            for (Map.Entry<String, Rectangle> entry : placed.entrySet()) {
+                Rectangle r = entry.getValue();
+                out.println(entry.getKey() + " " + r.x + " " + r.y + " " + r.width + " " + r.height);
+            }
+        }
+    }
+
+    /**
+     * Copies an image into one that suits the screen, so it can be drawn quickly, unless there is no screen.
+     */
+    private static Image toCompatible(BufferedImage image) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return image;
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        BufferedImage compatible = config.createCompatibleImage(image.getWidth(), image.getHeight(), Transparency.TRANSLUCENT);
+        Graphics2D g = compatible.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return compatible;
+    }
+
+    /**
+     * Packs the atlas again and writes it.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        synchronized (SpriteAtlas.class) {
+            loaded = true;
+            regions.clear();
+            pack();
+        }
+        System.out.println("Packed " + getRegionCount() + " images into " + ATLAS_IMAGE);
+    }
+}
@@ -0,0 +1,411 @@
+/**
+ * A spatial index of the sprites in a level, so the view can find the ones it needs to draw without checking them all.
+ * <p>
+ * The level is divided into square cells, and each sprite is kept in the cell its centre is in.
+ * Finding the sprites in an area only looks at the cells that overlap it.
+ * <p>
+ * Sprites are placed when they are first looked up or the level next steps, as they are usually registered
+ * before they are moved to their starting position. Static sprites then stay in their cell; dynamic sprites
+ * are moved to a new cell after each step if they have left their old one. Sprites are removed when they are destroyed.
+ * <p>
+ * Level logic can also ask the index for sprites of a type within a distance of a point, such as eggs near the chicken,
+ * or for the first sprite of a type along a ray, such as a fire a hazard can see. Both only look at the cells around the
+ * circle or along the ray, and skip sprites that are not shown, such as pickups parked in the level's PickupPool.
+ * For rays, each sprite is treated as a circle half its image height across, up to the size of a cell.
+ * <p>
+ * Sprites that are not culled, such as the chicken and the platforms, are not kept in any cell. Every lookup of an area finds them,
+ * after the sprites in the area, static ones first, so they are drawn over the rest; looking for sprites of a type does not find them.
+ * <p>
+ * Sprites are drawn by the view instead of the engine, so registering a body makes the engine's own drawing of its shape invisible.
+ * <p>
+ * @author      Joyce Ow joyce.ow@city.ac.uk
+ * @version     2.0
+ * @since       2025
+ */
+
+package game;
+
+import city.cs.engine.*;
+import org.jbox2d.common.Vec2;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SpriteIndex implements StepListener {
+    /**
+     * Width and height of each cell, in metres.
+     */
+    public static final float CELL_SIZE = 10f;
+
+    private static final Color INVISIBLE = new Color(0, 0, 0, 0);
+
+    /**
+     * Sprites in each cell, by cell key.
+     */
+    private final Map<Long, List<Body>> cells = new HashMap<>();
+
+    /**
+     * Key of the cell each placed sprite is in.
+     */
+    private final Map<Body, Long> cellOf = new IdentityHashMap<>();
+
+    /**
+     * Sprites that are checked for a change of cell after every step.
+     */
+    private final List<Body> moving = new ArrayList<>();
+
+    /**
+     * Sprites registered but not yet placed in a cell.
+     */
+    private final List<Body> pending = new ArrayList<>();
+
+    /**
+     * Sprites that are never culled, the static ones before the dynamic ones.
+     */
+    private final List<Body> unculled = new ArrayList<>();
+    private int unculledStatic = 0;
+
+    /**
+     * Furthest a ray reaches, in metres. Longer rays are cut short, as a ray must end for the walk along its cells to end,
+     * and far beyond this a step of one cell no longer changes how far along the ray the walk has got.
+     */
+    public static final float MAX_RAY_DISTANCE = 10000f;
+
+    /**
+     * Keys of the last cells looked at by the current ray, kept in a ring and reused for every ray.
+     * The ray walks its cells in order and looks at the cells around each, so a cell can only be looked at again
+     * from one of the next few cells of the walk, long before it is overwritten.
+     */
+    private static final int RECENT_CELLS = 64;
+    private final long[] checkedCells = new long[RECENT_CELLS];
+    private int checkedCount = 0;
+
+    /**
+     * Registers a sprite with the index of the level it is in.
+     *
+     * @param world the world the sprite was created in, which should be a GameLevel
+     * @param sprite the sprite
+     */
+    public static void register(World world, Body sprite) {
+        if (world instanceof GameLevel) {
+            ((GameLevel) world).getSprites().add(sprite);
+        }
+    }
+
+    /**
+     * Adds a sprite to the index. It is placed in its cell when the index is next looked up or the level next steps.
+     *
+     * @param sprite the body, which must implement Sprite
+     */
+    public void add(Body sprite) {
+        //the view draws the sprite, so the engine should not draw its shape
+        sprite.setFillColor(INVISIBLE);
+        sprite.setLineColor(INVISIBLE);
+        sprite.addDestructionListener(e -> remove(sprite));
+
+        if (!((Sprite) sprite).isCulled()) {
+            if (sprite instanceof DynamicBody) {
+                unculled.add(sprite);
+            } else {
+                unculled.add(unculledStatic++, sprite);
+            }
+            return;
+        }
+        pending.add(sprite);
+        if (sprite instanceof DynamicBody) {
+            moving.add(sprite);
+        }
+    }
+
+    /**
+     * Removes a sprite from the index.
+     *
+     * @param sprite the sprite to remove
+     */
+    public void remove(Body sprite) {
+        int index = unculled.indexOf(sprite);
+        if (index >= 0) {
+            unculled.remove(index);
+            if (index < unculledStatic) {
+                unculledStatic--;
+            }
+            return;
+        }
+        pending.remove(sprite);
+        if (sprite instanceof DynamicBody) {
+            moving.remove(sprite);
+        }
+        Long key = cellOf.remove(sprite);
+        if (key != null) {
+            removeFromCell(sprite, key);
+        }
+    }
+
+    /**
+     * Finds the sprites whose centres are within a rectangle, followed by every sprite that is not culled.
+     *
+     * @param minX the left edge of the rectangle
+     * @param minY the bottom edge of the rectangle
+     * @param maxX the right edge of the rectangle
+     * @param maxY the top edge of the rectangle
+     * @param out the list to add the sprites to
+     */
+    public void query(float minX, float minY, float maxX, float maxY, List<Body> out) {
+        placePending();
+
+        int lowX = cellIndex(minX);
+        int highX = cellIndex(maxX);
+        int lowY = cellIndex(minY);
+        int highY = cellIndex(maxY);
+        for (int cellX = lowX; cellX <= highX; cellX++) {
+            for (int cellY = lowY; cellY <= highY; cellY++) {
+                List<Body> cell = cells.get(key(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (Body sprite : cell) {
+                    Vec2 position = sprite.getPosition();
+                    if (position.x >= minX && position.x <= maxX && position.y >= minY && position.y <= maxY) {
+                        out.add(sprite);
+                    }
+                }
+            }
+        }
+        out.addAll(unculled);
+    }
+
+    /**
+     * Finds the shown sprites of a type whose centres are within a distance of a point.
+     *
+     * @param centre the point
+     * @param radius the distance, in metres
+     * @param type the class of sprite to find, such as Egg.class
+     * @param out the list to add the sprites to
+     * @param <T> the type of sprite
+     */
+    public <T> void queryRadius(Vec2 centre, float radius, Class<T> type, List<T> out) {
+        placePending();
+
+        float radiusSquared = radius * radius;
+        int lowX = cellIndex(centre.x - radius);
+        int highX = cellIndex(centre.x + radius);
+        int lowY = cellIndex(centre.y - radius);
+        int highY = cellIndex(centre.y + radius);
+        for (int cellX = lowX; cellX <= highX; cellX++) {
+            for (int cellY = lowY; cellY <= highY; cellY++) {
+                List<Body> cell = cells.get(key(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (Body sprite : cell) {
+                    if (!type.isInstance(sprite) || !((Sprite) sprite).isShown()) {
+                        continue;
+                    }
+                    Vec2 position = sprite.getPosition();
+                    float dx = position.x - centre.x;
+                    float dy = position.y - centre.y;
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        out.add(type.cast(sprite));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the first shown sprite of a type that a ray hits.
+     * The cells are walked in order along the ray, so the search stops as soon as nothing nearer can be found.
+     *
+     * @param origin where the ray starts
+     * @param direction the direction of the ray, which need not be a unit vector
+     * @param maxDistance how far the ray reaches, in metres, up to MAX_RAY_DISTANCE
+     * @param type the class of sprite to find, such as Fire.class
+     * @param <T> the type of sprite
+     * @return the nearest sprite hit, or null if the ray hits none within its reach, or the ray is not a finite ray
+     */
+    public <T> T raycast(Vec2 origin, Vec2 direction, float maxDistance, Class<T> type) {
+        placePending();
+
+        float length = (float) Math.sqrt(direction.x * direction.x + direction.y * direction.y);
+        if (length == 0 || !Float.isFinite(length) || !Float.isFinite(origin.x) || !Float.isFinite(origin.y) || !(maxDistance >= 0)) {
+            return null;
+        }
+        maxDistance = Math.min(maxDistance, MAX_RAY_DISTANCE);
+        float dirX = direction.x / length;
+        float dirY = direction.y / length;
+
+        //walk the cells the ray passes through, in order
+        int cellX = cellIndex(origin.x);
+        int cellY = cellIndex(origin.y);
+        int stepX = dirX > 0 ? 1 : -1;
+        int stepY = dirY > 0 ? 1 : -1;
+        float deltaX = dirX != 0 ? CELL_SIZE / Math.abs(dirX) : Float.POSITIVE_INFINITY;
+        float deltaY = dirY != 0 ? CELL_SIZE / Math.abs(dirY) : Float.POSITIVE_INFINITY;
+        float nextX = dirX != 0 ? ((cellX + (dirX > 0 ? 1 : 0)) * CELL_SIZE - origin.x) / dirX : Float.POSITIVE_INFINITY;
+        float nextY = dirY != 0 ? ((cellY + (dirY > 0 ? 1 : 0)) * CELL_SIZE - origin.y) / dirY : Float.POSITIVE_INFINITY;
+
+        Body nearest = null;
+        float nearestDistance = maxDistance;
+        float entry = 0;
+        checkedCount = 0;
+        while (entry <= nearestDistance) {
+            //a sprite hit in this cell may be centred in a neighbouring one, as it can reach up to a cell from its centre
+            for (int x = cellX - 1; x <= cellX + 1; x++) {
+                for (int y = cellY - 1; y <= cellY + 1; y++) {
+                    long key = key(x, y);
+                    if (!checkCell(key)) {
+                        continue;
+                    }
+                    List<Body> cell = cells.get(key);
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Body sprite : cell) {
+                        if (!type.isInstance(sprite) || !((Sprite) sprite).isShown()) {
+                            continue;
+                        }
+                        float distance = hitDistance(sprite, origin, dirX, dirY);
+                        if (distance >= 0 && distance <= nearestDistance) {
+                            nearest = sprite;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+
+            //move on to the next cell; once a cell starts beyond the nearest hit, nothing nearer is left to find
+            if (nextX < nextY) {
+                cellX += stepX;
+                entry = nextX;
+                nextX += deltaX;
+            } else {
+                cellY += stepY;
+                entry = nextY;
+                nextY += deltaY;
+            }
+        }
+        return type.cast(nearest);
+    }
+
+    /**
+     * Marks a cell as looked at by the current ray.
+     *
+     * @return true if the cell had not been looked at yet
+     */
+    private boolean checkCell(long key) {
+        int recent = Math.min(checkedCount, RECENT_CELLS);
+        for (int i = 0; i < recent; i++) {
+            if (checkedCells[i] == key) {
+                return false;
+            }
+        }
+        checkedCells[checkedCount++ % RECENT_CELLS] = key;
+        return true;
+    }
+
+    /**
+     * Finds how far along a ray it first touches a sprite.
+     *
+     * @return the distance, or -1 if the ray misses the sprite
+     */
+    private static float hitDistance(Body sprite, Vec2 origin, float dirX, float dirY) {
+        float radius = Math.min(((Sprite) sprite).getSpriteHeight() / 2, CELL_SIZE);
+        Vec2 position = sprite.getPosition();
+        float toX = position.x - origin.x;
+        float toY = position.y - origin.y;
+        float along = toX * dirX + toY * dirY;
+        float missSquared = toX * toX + toY * toY - along * along;
+        if (missSquared > radius * radius) {
+            return -1;
+        }
+        float distance = along - (float) Math.sqrt(radius * radius - missSquared);
+        if (distance >= 0) {
+            return distance;
+        }
+        //the ray starts inside the sprite, unless the sprite is entirely behind it
+        return along + (float) Math.sqrt(radius * radius - missSquared) >= 0 ? 0 : -1;
+    }
+
+    public int size() {
+        return cellOf.size() + pending.size() + unculled.size();
+    }
+
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    private static int cellIndex(float coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static long keyOf(Body sprite) {
+        Vec2 position = sprite.getPosition();
+        return key(cellIndex(position.x), cellIndex(position.y));
+    }
+
+    /**
+     * Places every sprite that was registered since the last lookup or step.
+     */
+    private void placePending() {
+        for (Body sprite : pending) {
+            long key = keyOf(sprite);
+            cellOf.put(sprite, key);
+            cells.computeIfAbsent(key, k -> new ArrayList<>()).add(sprite);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Moves a sprite to the cell it is now in, if it has left its old one.
+     */
+    private void move(Body sprite) {
+        Long oldKey = cellOf.get(sprite);
+        if (oldKey == null) {
+            return;
+        }
+        long newKey = keyOf(sprite);
+        if (newKey != oldKey) {
+            removeFromCell(sprite, oldKey);
+            cellOf.put(sprite, newKey);
+            cells.computeIfAbsent(newKey, k -> new ArrayList<>()).add(sprite);
+        }
+    }
+
+    private void removeFromCell(Body sprite, long key) {
+        List<Body> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(sprite);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Not used but required by StepListener.
+     */
+    @Override
+    public void preStep(StepEvent stepEvent) {
+    }
+
+    /**
+     * Places new sprites and moves dynamic sprites that have changed cell during the step.
+     *
+     * @param stepEvent the event fired after each simulation step
+     */
+    @Override
+    public void postStep(StepEvent stepEvent) {
+        placePending();
+        for (int i = 0; i < moving.size(); i++) {
+            move(moving.get(i));
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /**
  * Represents a static water bucket that can be collected in the game to activate  certain game mechanics such as the shooting of water projectiles.
  * <p>
- * Once collected, it sets a static flag to signal its collection state.
+ * Once collected, it is marked as collected in the LevelState of its level.
  * <p>
  * The water bucket is represented by a box shape and a custom image.
  * <p>
@@ -14,10 +14,11 @@ package game;
 
 import city.cs.engine.*;
 
-public class WaterBucket extends StaticBody {
+public class WaterBucket extends StaticBody implements Sprite {
     private static final Shape bucketShape = new BoxShape(2,2);
 
-    private static final BodyImage image = new BodyImage("data/waterBucket.png", 4.5f);
+    private static final SpriteAtlas.Region image = SpriteAtlas.region("data/waterBucket.png");
+    private static final float IMAGE_HEIGHT = 4.5f;
 
     /**
      * Constructs a new WaterBucket in the specified world.
@@ -26,16 +27,16 @@ public class WaterBucket extends StaticBody {
      */
     public WaterBucket(World world) {
         super(world, bucketShape);
-        addImage(image);
+        SpriteIndex.register(world, this);
     }
 
-    private static boolean collectedBucket = false;
-
-    public static boolean setCollectedBucket() {
-        return collectedBucket = true;
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
     }
 
-    public static boolean getCollectedBucket() {
-        return collectedBucket;
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
     }
 }
@@ -4,7 +4,10 @@
  * It moves in a given direction at a constant speed when launched.
  * The projectile is only triggered after the WaterBucket has been collected in Level3.
  * <p>
- * The water projectile is represented by a circle shape and a custom image.
+ * Projectiles are reused by the level's ProjectilePool: each one is launched, parked when it hits a fire or leaves play,
+ * and launched again for a later shot.
+ * <p>
+ * The water projectile is represented by a circle shape and a custom image, shared by every projectile.
  * <p>
  * @author      Joyce Ow joyce.ow@city.ac.uk
  * @version     2.0
@@ -16,7 +19,17 @@ package game;
 import city.cs.engine.*;
 import org.jbox2d.common.Vec2;
 
-public class WaterProjectile extends DynamicBody {
+public class WaterProjectile extends DynamicBody implements Sprite {
+    private static final Shape waterShape = new CircleShape(2);
+
+    static final SpriteAtlas.Region image = SpriteAtlas.image("data/water.png");
+    static final float IMAGE_HEIGHT = 10f;
+
+    /**
+     * Velocity of a parked projectile. The engine copies it, so it is shared by every projectile.
+     */
+    private static final Vec2 STILL = new Vec2(0, 0);
+
     /**
      * The direction in which the projectile will travel.
      */
@@ -28,26 +41,78 @@ public class WaterProjectile extends DynamicBody {
     private static final float SPEED = 10f;
 
     /**
-     * Constructs a new WaterProjectile in the specified world at a given position and with a given movement direction.
-     * The projectile is immediately assigned a linear velocity based on the direction.
+     * The projectile's slot in its ProjectilePool.
+     */
+    private final int slot;
+
+    /**
+     * Whether the projectile has been launched and not yet parked.
+     */
+    private boolean shown = false;
+
+    /**
+     * Constructs a new WaterProjectile in the specified world. It is not shown or moving until it is launched.
      *
      * @param world the game world where the water projectile will be spawned
+     * @param slot the projectile's slot in its ProjectilePool
+     */
+    public WaterProjectile(World world, int slot) {
+        super(world, waterShape);
+        this.slot = slot;
+        SpriteIndex.register(world, this);
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Shows the projectile and sets it moving from the given position in the given direction.
+     *
      * @param position the starting position of the projectile
      * @param direction the direction in which the projectile should move
      */
-    public WaterProjectile(World world, Vec2 position, Vec2 direction) {
-        super(world, new CircleShape(2));
-        setPosition(position);
+    public void launch(Vec2 position, Vec2 direction) {
         this.direction = direction;
+        setPosition(position);
+        setAngle(0);
+        setAngularVelocity(0);
+        setGravityScale(1);
         setLinearVelocity(direction.mul(SPEED));
+
+        shown = true;
     }
 
     /**
-     * Adds a visual representation of the projectile, using a custom image.
-     * This is called after creation to display the water graphic.
+     * Hides the projectile and holds it still at the given position until it is launched again.
+     *
+     * @param position where to keep the projectile
      */
-    public void launch() {
-        this.addImage(new BodyImage("data/water.png", 10f));
+    public void park(Vec2 position) {
+        shown = false;
+        setGravityScale(0);
+        setLinearVelocity(STILL);
+        setAngularVelocity(0);
+        setPosition(position);
     }
-}
 
+    @Override
+    public SpriteAtlas.Region getSpriteRegion() {
+        return image;
+    }
+
+    @Override
+    public float getSpriteHeight() {
+        return IMAGE_HEIGHT;
+    }
+
+    @Override
+    public boolean isShown() {
+        return shown;
+    }
+
+    @Override
+    public boolean isCulled() {
+        return false;
+    }
+}